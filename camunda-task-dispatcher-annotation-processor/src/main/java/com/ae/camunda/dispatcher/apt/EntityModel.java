@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.apt;
+
+import com.ae.camunda.dispatcher.api.annotation.CamundaVar;
+import com.ae.camunda.dispatcher.api.annotation.task.Id;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.lang.annotation.Annotation;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Variables of {@link com.ae.camunda.dispatcher.api.annotation.CamundaTask} or
+ * {@link com.ae.camunda.dispatcher.api.annotation.CamundaSignal} class, collected by the same rules as
+ * runtime does it by reflection
+ */
+final class EntityModel {
+
+    static final String TASK_ANNOTATION_PACKAGE = Id.class.getPackage().getName();
+
+    private static final String MAPPER_SUFFIX = "CamundaMapper";
+
+    private final TypeElement type;
+
+    private final String name;
+
+    private final String packageName;
+
+    private final Map<String, Property> properties;
+
+    private EntityModel(TypeElement type, String name, String packageName, Map<String, Property> properties) {
+        this.type = type;
+        this.name = name;
+        this.packageName = packageName;
+        this.properties = properties;
+    }
+
+    /**
+     * @param task fields annotated by annotations of {@link #TASK_ANNOTATION_PACKAGE} are variables too
+     */
+    static EntityModel of(TypeElement type, String name, boolean task, ProcessingEnvironment env) throws MappingException {
+        Elements elements = env.getElementUtils();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new MappingException("Class is private");
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new MappingException("Class is inner, it must be static");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new MappingException("Class is generic");
+        }
+
+        Map<String, Property> properties = new LinkedHashMap<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                for (String varName : getVarNames(field, task)) {
+                    properties.put(varName, toProperty(varName, field, type, packageName, env));
+                }
+            }
+            current = getSuperclass(current);
+        }
+
+        return new EntityModel(type, name, packageName, properties);
+    }
+
+    private static Iterable<String> getVarNames(VariableElement field, boolean task) {
+        Map<String, Boolean> names = new LinkedHashMap<>();
+        CamundaVar camundaVar = field.getAnnotation(CamundaVar.class);
+        if (camundaVar != null) {
+            names.put(getVarName(field, camundaVar), true);
+        } else {
+            for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+                CamundaVar var = annotation.getAnnotationType().asElement().getAnnotation(CamundaVar.class);
+                if (var != null) {
+                    names.put(getVarName(field, var), true);
+                }
+            }
+        }
+
+        if (task) {
+            for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+                if (isTaskAnnotation(annotationType)) {
+                    names.put(uncapitalize(annotationType.getSimpleName().toString()), true);
+                }
+            }
+        }
+        return names.keySet();
+    }
+
+    static boolean isTaskAnnotation(TypeElement annotationType) {
+        Element enclosing = annotationType.getEnclosingElement();
+        return enclosing.getKind() == ElementKind.PACKAGE
+                && ((PackageElement) enclosing).getQualifiedName().contentEquals(TASK_ANNOTATION_PACKAGE);
+    }
+
+    private static String getVarName(VariableElement field, CamundaVar camundaVar) {
+        return camundaVar.value().isEmpty() ? field.getSimpleName().toString() : camundaVar.value();
+    }
+
+    private static Property toProperty(String varName, VariableElement field, TypeElement type, String packageName, ProcessingEnvironment env) {
+        Types types = env.getTypeUtils();
+        String capitalized = capitalize(field.getSimpleName().toString());
+
+        ExecutableElement getter = null;
+        ExecutableElement setter = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(env.getElementUtils().getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.STATIC)
+                    || !isAccessible(method, packageName, env)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty()
+                    && types.isSameType(method.getReturnType(), field.asType())
+                    && (methodName.equals("get" + capitalized)
+                    || methodName.equals("is" + capitalized) && field.asType().getKind() == TypeKind.BOOLEAN)) {
+                getter = method;
+            } else if (method.getParameters().size() == 1
+                    && method.getReturnType().getKind() == TypeKind.VOID
+                    && types.isSameType(method.getParameters().get(0).asType(), field.asType())
+                    && methodName.equals("set" + capitalized)) {
+                setter = method;
+            }
+        }
+
+        return new Property(varName, field, getter, setter, isAccessible(field, packageName, env));
+    }
+
+    /**
+     * Mapper is generated in the package of entity
+     */
+    private static boolean isAccessible(Element member, String packageName, ProcessingEnvironment env) {
+        if (member.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !member.getModifiers().contains(Modifier.PRIVATE)
+                && env.getElementUtils().getPackageOf(member).getQualifiedName().contentEquals(packageName);
+    }
+
+    static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    boolean hasFieldAnnotatedWith(Class<? extends Annotation> annotation) {
+        for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getAnnotation(annotation) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @throws MappingException if command can't be created by generated code
+     */
+    void checkInstantiable(ProcessingEnvironment env) throws MappingException {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new MappingException("Class is abstract");
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor, packageName, env)) {
+                return;
+            }
+        }
+        throw new MappingException("Class has no accessible constructor without parameters");
+    }
+
+    static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    static String uncapitalize(String value) {
+        return value.isEmpty() ? value : Character.toLowerCase(value.charAt(0)) + value.substring(1);
+    }
+
+    TypeElement getType() {
+        return type;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * @return simple name of mapper class, nested entity class gets name of its outer classes as prefix
+     */
+    String getMapperName(Elements elements) {
+        String binaryName = elements.getBinaryName(type).toString();
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        return simpleName.replace('$', '_') + MAPPER_SUFFIX;
+    }
+
+    Map<String, Property> getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.apt;
+
+import com.ae.camunda.dispatcher.api.annotation.CamundaSignal;
+import com.ae.camunda.dispatcher.api.annotation.CamundaTask;
+import com.ae.camunda.dispatcher.api.annotation.task.Id;
+import com.ae.camunda.dispatcher.api.annotation.task.WorkerId;
+import com.ae.camunda.dispatcher.api.mapper.GeneratedSignalMapper;
+import com.ae.camunda.dispatcher.api.mapper.GeneratedTaskMapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates {@link GeneratedTaskMapper} for every {@link CamundaTask} class and {@link GeneratedSignalMapper}
+ * for every {@link CamundaSignal} class, and registers them in {@code META-INF/services}.
+ * <p>
+ * Mapper reaches fields by getters and setters or directly, so they must not be private or must have
+ * non-private accessors. Class which can't be mapped this way gets a warning and is mapped by reflection as before
+ */
+@SupportedAnnotationTypes({
+        "com.ae.camunda.dispatcher.api.annotation.CamundaTask",
+        "com.ae.camunda.dispatcher.api.annotation.CamundaSignal"
+})
+public class MapperProcessor extends AbstractProcessor {
+
+    private final Set<String> taskMappers = new TreeSet<>();
+
+    private final Set<String> signalMappers = new TreeSet<>();
+
+    private MapperWriter writer;
+
+    private Set<String> taskVarNames;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.writer = new MapperWriter(processingEnv);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServices(GeneratedTaskMapper.class.getName(), taskMappers);
+            writeServices(GeneratedSignalMapper.class.getName(), signalMappers);
+            return false;
+        }
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(CamundaTask.class))) {
+            if (type.getKind() == ElementKind.CLASS) {
+                generateTaskMapper(type);
+            }
+        }
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(CamundaSignal.class))) {
+            if (type.getKind() == ElementKind.CLASS) {
+                generateSignalMapper(type);
+            }
+        }
+        return false;
+    }
+
+    private void generateTaskMapper(TypeElement type) {
+        CamundaTask annotation = type.getAnnotation(CamundaTask.class);
+        String taskName = annotation.value().isEmpty() ? type.getQualifiedName().toString() : annotation.value();
+        try {
+            EntityModel model = EntityModel.of(type, taskName, true, processingEnv);
+            if (!model.hasFieldAnnotatedWith(Id.class) || !model.hasFieldAnnotatedWith(WorkerId.class)) {
+                // runtime также пропускает такие классы
+                return;
+            }
+            String source = writer.writeTaskMapper(model, getTaskVarNames());
+            taskMappers.add(writeSource(model, source));
+        } catch (MappingException e) {
+            warn(type, e);
+        }
+    }
+
+    private void generateSignalMapper(TypeElement type) {
+        CamundaSignal annotation = type.getAnnotation(CamundaSignal.class);
+        String signalName = annotation.value().isEmpty() ? type.getQualifiedName().toString() : annotation.value();
+        try {
+            EntityModel model = EntityModel.of(type, signalName, false, processingEnv);
+            String source = writer.writeSignalMapper(model, annotation.delivery());
+            signalMappers.add(writeSource(model, source));
+        } catch (MappingException e) {
+            warn(type, e);
+        }
+    }
+
+    private Set<String> getTaskVarNames() {
+        if (taskVarNames == null) {
+            taskVarNames = new TreeSet<>();
+            PackageElement taskPackage = processingEnv.getElementUtils().getPackageElement(EntityModel.TASK_ANNOTATION_PACKAGE);
+            for (Element element : taskPackage.getEnclosedElements()) {
+                if (element.getKind() == ElementKind.ANNOTATION_TYPE) {
+                    taskVarNames.add(EntityModel.uncapitalize(element.getSimpleName().toString()));
+                }
+            }
+        }
+        return taskVarNames;
+    }
+
+    /**
+     * @return qualified name of the mapper
+     */
+    private String writeSource(EntityModel model, String source) throws MappingException {
+        String simpleName = model.getMapperName(processingEnv.getElementUtils());
+        String name = model.getPackageName().isEmpty() ? simpleName : model.getPackageName() + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, model.getType());
+            try (Writer out = file.openWriter()) {
+                out.write(source);
+            }
+        } catch (IOException e) {
+            throw new MappingException("Mapper " + name + " isn't written: " + e.getMessage());
+        }
+        return name;
+    }
+
+    /**
+     * Mappers of classes not compiled in this run (incremental build) are kept in the file
+     */
+    private void writeServices(String service, Set<String> mappers) {
+        if (mappers.isEmpty()) {
+            return;
+        }
+
+        String path = "META-INF/services/" + service;
+        Set<String> lines = new TreeSet<>(mappers);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .forEach(lines::add);
+            }
+        } catch (IOException e) {
+            // файла ещё нет
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
+            try (Writer out = file.openWriter()) {
+                for (String line : lines) {
+                    out.write(line);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void warn(TypeElement type, MappingException e) {
+        processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.WARNING
+                , "Mapper isn't generated, class is mapped by reflection. " + e.getMessage()
+                , type
+        );
+    }
+}
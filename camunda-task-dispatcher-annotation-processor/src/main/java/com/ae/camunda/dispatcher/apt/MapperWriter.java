@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.apt;
+
+import com.ae.camunda.dispatcher.api.annotation.CamundaSignal;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes source of mapper class. Code is built completely before it's written, so {@link MappingException}
+ * leaves no half-written mapper
+ */
+class MapperWriter {
+
+    static final String LOCKED_TASK = "org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto";
+
+    static final String COMPLETE_TASK = "org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto";
+
+    static final String FAIL_TASK = "org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto";
+
+    static final String EXTEND_LOCK_TASK = "org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto";
+
+    static final String SIGNAL = "org.camunda.bpm.engine.rest.dto.SignalDto";
+
+    private static final String VARIABLE_VALUE = "org.camunda.bpm.engine.rest.dto.VariableValueDto";
+
+    private static final String TASK_MAPPER = "com.ae.camunda.dispatcher.api.mapper.GeneratedTaskMapper";
+
+    private static final String SIGNAL_MAPPER = "com.ae.camunda.dispatcher.api.mapper.GeneratedSignalMapper";
+
+    private static final String CONVERTER = "com.ae.camunda.dispatcher.api.mapper.VariableConverter";
+
+    private final ProcessingEnvironment env;
+
+    private final Types types;
+
+    MapperWriter(ProcessingEnvironment env) {
+        this.env = env;
+        this.types = env.getTypeUtils();
+    }
+
+    /**
+     * @param taskVarNames names of variables taken by annotations of task fields, they aren't sent to engine as
+     *                     process variables
+     */
+    String writeTaskMapper(EntityModel model, Set<String> taskVarNames) throws MappingException {
+        model.checkInstantiable(env);
+        Map<String, Property> properties = model.getProperties();
+
+        String entity = model.getType().getQualifiedName().toString();
+        StringBuilder code = header(model, TASK_MAPPER + "<" + entity + ">");
+
+        code.append("    private static final java.util.List<String> VARIABLE_NAMES = java.util.List.of(")
+                .append(properties.keySet().stream().map(MapperWriter::literal).collect(Collectors.joining(", ")))
+                .append(");\n\n");
+
+        code.append("    @Override\n")
+                .append("    public String getTaskName() {\n")
+                .append("        return ").append(literal(model.getName())).append(";\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public Class<").append(entity).append("> getCommandClass() {\n")
+                .append("        return ").append(entity).append(".class;\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public java.util.List<String> getVariableNames() {\n")
+                .append("        return VARIABLE_NAMES;\n")
+                .append("    }\n\n");
+
+        // поля задачи перекрывают одноимённые переменные, как и при маппинге через reflection
+        Map<String, TypeMirror> taskProperties = getDtoProperties(LOCKED_TASK, false);
+        code.append("    @Override\n")
+                .append("    public ").append(entity).append(" toCommand(").append(LOCKED_TASK).append(" task, ").append(CONVERTER).append(" converter) {\n")
+                .append("        ").append(entity).append(" command = new ").append(entity).append("();\n")
+                .append("        java.util.Map<String, ").append(VARIABLE_VALUE).append("> variables = task.getVariables();\n")
+                .append("        if (variables != null) {\n")
+                .append("            ").append(VARIABLE_VALUE).append(" value;\n");
+        for (Property property : properties.values()) {
+            if (taskProperties.containsKey(property.getVarName())) {
+                continue;
+            }
+            TypeMirror type = property.getType();
+            String converted = "converter.fromVariable(value, " + boxedErasure(type) + ".class)";
+            code.append("            value = variables.get(").append(literal(property.getVarName())).append(");\n")
+                    .append("            if (value != null) {\n")
+                    .append("                ").append(property.write("command", type.getKind().isPrimitive() ? orZero(converted, type) : converted)).append("\n")
+                    .append("            }\n");
+        }
+        code.append("        }\n");
+        for (Property property : properties.values()) {
+            TypeMirror taskType = taskProperties.get(property.getVarName());
+            if (taskType != null) {
+                String value = convert("task." + getterName(property.getVarName(), taskType) + "()", taskType, property.getType(), property);
+                code.append("        ").append(property.write("command", value)).append("\n");
+            }
+        }
+        code.append("        return command;\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public String getId(").append(entity).append(" command) {\n")
+                .append("        return String.valueOf(").append(properties.get("id").read("command")).append(");\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public ").append(COMPLETE_TASK).append(" toCompleteTask(").append(entity).append(" command, ").append(CONVERTER).append(" converter) {\n")
+                .append("        ").append(COMPLETE_TASK).append(" dto = new ").append(COMPLETE_TASK).append("();\n");
+        writeDtoProperties(code, COMPLETE_TASK, properties);
+        code.append("        java.util.Map<String, ").append(VARIABLE_VALUE).append("> variables = new java.util.HashMap<>();\n");
+        for (Property property : properties.values()) {
+            if (!taskVarNames.contains(property.getVarName())) {
+                code.append("        variables.put(").append(literal(property.getVarName())).append(", converter.toVariable(").append(property.read("command")).append("));\n");
+            }
+        }
+        code.append("        dto.setVariables(variables);\n")
+                .append("        return dto;\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public ").append(FAIL_TASK).append(" toFailTask(").append(entity).append(" command) {\n")
+                .append("        ").append(FAIL_TASK).append(" dto = new ").append(FAIL_TASK).append("();\n");
+        writeDtoProperties(code, FAIL_TASK, properties);
+        code.append("        return dto;\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public ").append(EXTEND_LOCK_TASK).append(" toExtendLockTask(").append(entity).append(" command, long newDuration) {\n")
+                .append("        ").append(EXTEND_LOCK_TASK).append(" dto = new ").append(EXTEND_LOCK_TASK).append("();\n");
+        writeDtoProperties(code, EXTEND_LOCK_TASK, properties);
+        code.append("        dto.setNewDuration(newDuration);\n")
+                .append("        return dto;\n")
+                .append("    }\n");
+
+        return code.append("}\n").toString();
+    }
+
+    String writeSignalMapper(EntityModel model, CamundaSignal.Delivery delivery) throws MappingException {
+        Map<String, Property> properties = model.getProperties();
+        if (!properties.containsKey("businessKey")) {
+            throw new MappingException("Class has no field annotated with @BusinessKey");
+        }
+
+        String entity = model.getType().getQualifiedName().toString();
+        StringBuilder code = header(model, SIGNAL_MAPPER + "<" + entity + ">");
+
+        code.append("    @Override\n")
+                .append("    public String getSignalName() {\n")
+                .append("        return ").append(literal(model.getName())).append(";\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public Class<").append(entity).append("> getSignalClass() {\n")
+                .append("        return ").append(entity).append(".class;\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public ").append(CamundaSignal.Delivery.class.getCanonicalName()).append(" getDelivery() {\n")
+                .append("        return ").append(CamundaSignal.Delivery.class.getCanonicalName()).append(".").append(delivery.name()).append(";\n")
+                .append("    }\n\n");
+
+        code.append("    @Override\n")
+                .append("    public ").append(SIGNAL).append(" toSignal(").append(entity).append(" signal, ").append(CONVERTER).append(" converter) {\n")
+                .append("        ").append(SIGNAL).append(" dto = new ").append(SIGNAL).append("();\n")
+                .append("        dto.setName(getSignalName());\n")
+                .append("        java.util.Map<String, ").append(VARIABLE_VALUE).append("> variables = new java.util.HashMap<>();\n");
+        for (Property property : properties.values()) {
+            code.append("        variables.put(").append(literal(property.getVarName())).append(", converter.toVariable(").append(property.read("signal")).append("));\n");
+        }
+        code.append("        dto.setVariables(variables);\n")
+                .append("        return dto;\n")
+                .append("    }\n");
+
+        return code.append("}\n").toString();
+    }
+
+    private StringBuilder header(EntityModel model, String mapperInterface) {
+        StringBuilder code = new StringBuilder();
+        if (!model.getPackageName().isEmpty()) {
+            code.append("package ").append(model.getPackageName()).append(";\n\n");
+        }
+        return code.append("@javax.annotation.processing.Generated(\"").append(MapperProcessor.class.getName()).append("\")\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(model.getMapperName(env.getElementUtils()))
+                .append(" implements ").append(mapperInterface).append(" {\n\n");
+    }
+
+    /**
+     * Fields of DTO are set from variables of the same name, as runtime does it by reflection
+     */
+    private void writeDtoProperties(StringBuilder code, String dto, Map<String, Property> properties) throws MappingException {
+        for (Map.Entry<String, TypeMirror> dtoProperty : getDtoProperties(dto, true).entrySet()) {
+            Property property = properties.get(dtoProperty.getKey());
+            if (property != null) {
+                String value = convert(property.read("command"), property.getType(), dtoProperty.getValue(), property);
+                code.append("        dto.set").append(EntityModel.capitalize(dtoProperty.getKey())).append("(").append(value).append(");\n");
+            }
+        }
+    }
+
+    /**
+     * @param setters properties are written, otherwise read
+     * @return types of DTO fields having public setter or getter
+     */
+    private Map<String, TypeMirror> getDtoProperties(String dto, boolean setters) throws MappingException {
+        TypeElement dtoType = env.getElementUtils().getTypeElement(dto);
+        if (dtoType == null) {
+            throw new MappingException("Class " + dto + " isn't found, camunda-engine-rest-core must be on classpath");
+        }
+
+        Map<String, TypeMirror> properties = new LinkedHashMap<>();
+        for (TypeElement current = dtoType; current != null; current = EntityModel.getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                String name = field.getSimpleName().toString();
+                if (!field.getModifiers().contains(Modifier.STATIC)
+                        && !properties.containsKey(name)
+                        && hasAccessor(dtoType, name, field.asType(), setters)) {
+                    properties.put(name, field.asType());
+                }
+            }
+        }
+        return properties;
+    }
+
+    private boolean hasAccessor(TypeElement dtoType, String name, TypeMirror type, boolean setter) {
+        String methodName = setter ? "set" + EntityModel.capitalize(name) : getterName(name, type);
+        for (ExecutableElement method : ElementFilter.methodsIn(env.getElementUtils().getAllMembers(dtoType))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)
+                    && method.getSimpleName().contentEquals(methodName)
+                    && method.getParameters().size() == (setter ? 1 : 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getterName(String name, TypeMirror type) {
+        return (type.getKind() == TypeKind.BOOLEAN ? "is" : "get") + EntityModel.capitalize(name);
+    }
+
+    /**
+     * Boxed value set to primitive field turns {@code null} into zero like reflection based mapping does
+     */
+    private String convert(String expression, TypeMirror from, TypeMirror to, Property property) throws MappingException {
+        if (to.getKind().isPrimitive() && !from.getKind().isPrimitive()) {
+            PrimitiveType unboxed = unboxedOrNull(from);
+            if (unboxed != null && types.isAssignable(unboxed, to)) {
+                return orZero(expression, unboxed);
+            }
+        } else if (types.isAssignable(from, to)) {
+            return expression;
+        }
+        throw new MappingException("Variable '" + property.getVarName() + "' of type " + from + " can't be assigned to " + to);
+    }
+
+    private PrimitiveType unboxedOrNull(TypeMirror type) {
+        try {
+            return types.unboxedType(type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String orZero(String expression, TypeMirror primitive) {
+        return "java.util.Objects.requireNonNullElse(" + expression + ", " + zero(primitive.getKind()) + ")";
+    }
+
+    private static String zero(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "'\\0'";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0F";
+            case DOUBLE:
+                return "0D";
+            default:
+                return "0";
+        }
+    }
+
+    private String boxedErasure(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.apt;
+
+/**
+ * Entity can't be mapped by generated code, runtime maps it by reflection
+ */
+class MappingException extends Exception {
+
+    MappingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.apt;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Field of entity mapped to variable and the way generated code reaches it
+ */
+final class Property {
+
+    private final String varName;
+
+    private final VariableElement field;
+
+    private final ExecutableElement getter;
+
+    private final ExecutableElement setter;
+
+    private final boolean fieldAccessible;
+
+    Property(String varName, VariableElement field, ExecutableElement getter, ExecutableElement setter, boolean fieldAccessible) {
+        this.varName = varName;
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+        this.fieldAccessible = fieldAccessible;
+    }
+
+    String getVarName() {
+        return varName;
+    }
+
+    TypeMirror getType() {
+        return field.asType();
+    }
+
+    String read(String target) throws MappingException {
+        if (getter != null) {
+            return target + "." + getter.getSimpleName() + "()";
+        } else if (fieldAccessible) {
+            return target + "." + field.getSimpleName();
+        }
+        throw new MappingException("Field '" + field.getSimpleName() + "' has neither accessible getter nor is accessible itself");
+    }
+
+    String write(String target, String value) throws MappingException {
+        if (setter != null) {
+            return target + "." + setter.getSimpleName() + "(" + value + ");";
+        } else if (fieldAccessible && !field.getModifiers().contains(Modifier.FINAL)) {
+            return target + "." + field.getSimpleName() + " = " + value + ";";
+        }
+        throw new MappingException("Field '" + field.getSimpleName() + "' has neither accessible setter nor is accessible itself");
+    }
+}
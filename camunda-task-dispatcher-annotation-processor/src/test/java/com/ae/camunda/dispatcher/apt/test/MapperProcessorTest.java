@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.apt.test;
+
+import com.ae.camunda.dispatcher.api.annotation.CamundaSignal;
+import com.ae.camunda.dispatcher.api.mapper.GeneratedSignalMapper;
+import com.ae.camunda.dispatcher.api.mapper.GeneratedTaskMapper;
+import com.ae.camunda.dispatcher.api.mapper.VariableConverter;
+import com.ae.camunda.dispatcher.apt.MapperProcessor;
+import org.camunda.bpm.engine.rest.dto.SignalDto;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class MapperProcessorTest {
+
+    private static final String COMMAND = """
+            package sample;
+
+            import com.ae.camunda.dispatcher.api.annotation.CamundaTask;
+            import com.ae.camunda.dispatcher.api.annotation.CamundaVar;
+            import com.ae.camunda.dispatcher.api.annotation.task.*;
+
+            @CamundaTask("sampleCommand")
+            public class Command {
+                @Id
+                private String id;
+                @WorkerId
+                String workerId;
+                @Retries
+                int retries;
+                @RetryTimeout
+                Long retryTimeout;
+                @ErrorMessage
+                String errorMessage;
+                @CamundaVar
+                private int count;
+                @CamundaVar("text")
+                String value;
+
+                public String getId() { return id; }
+                public void setId(String id) { this.id = id; }
+                public int getCount() { return count; }
+                public void setCount(int count) { this.count = count; }
+            }
+            """;
+
+    private static final String SIGNAL = """
+            package sample;
+
+            import com.ae.camunda.dispatcher.api.annotation.CamundaSignal;
+            import com.ae.camunda.dispatcher.api.annotation.CamundaVar;
+            import com.ae.camunda.dispatcher.api.annotation.signal.BusinessKey;
+
+            @CamundaSignal(value = "sampleSignal", delivery = CamundaSignal.Delivery.MESSAGE)
+            public class Signal {
+                @BusinessKey
+                public String businessKey;
+                @CamundaVar
+                public Integer count;
+            }
+            """;
+
+    private static final String PRIVATE_COMMAND = """
+            package sample;
+
+            import com.ae.camunda.dispatcher.api.annotation.CamundaTask;
+            import com.ae.camunda.dispatcher.api.annotation.task.*;
+
+            @CamundaTask("privateCommand")
+            public class PrivateCommand {
+                @Id
+                private String id;
+                @WorkerId
+                private String workerId;
+            }
+            """;
+
+    private static final VariableConverter CONVERTER = new VariableConverter() {
+        @Override
+        public <V> V fromVariable(VariableValueDto value, Class<V> type) {
+            return type.cast(value.getValue());
+        }
+
+        @Override
+        public VariableValueDto toVariable(Object value) {
+            VariableValueDto variable = new VariableValueDto();
+            variable.setValue(value);
+            return variable;
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ClassLoader classLoader;
+
+    private List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+    @Before
+    public void init() throws IOException {
+        File sources = folder.newFolder("src", "sample");
+        Files.writeString(new File(sources, "Command.java").toPath(), COMMAND);
+        Files.writeString(new File(sources, "Signal.java").toPath(), SIGNAL);
+        Files.writeString(new File(sources, "PrivateCommand.java").toPath(), PRIVATE_COMMAND);
+        File classes = folder.newFolder("classes");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null
+                    , fileManager
+                    , collector
+                    , Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", classes.getPath()
+                            , "-processor", MapperProcessor.class.getName())
+                    , null
+                    , fileManager.getJavaFileObjects(sources.listFiles())
+            );
+            Assert.assertTrue(collector.getDiagnostics().toString(), task.call());
+        }
+
+        diagnostics = collector.getDiagnostics();
+        classLoader = new URLClassLoader(new URL[]{classes.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testTaskMapper() throws ReflectiveOperationException {
+        Map<String, GeneratedTaskMapper> mappers = StreamSupport
+                .stream(ServiceLoader.load(GeneratedTaskMapper.class, classLoader).spliterator(), false)
+                .collect(Collectors.toMap(GeneratedTaskMapper::getTaskName, mapper -> mapper));
+        Assert.assertEquals(1, mappers.size());
+
+        GeneratedTaskMapper mapper = mappers.get("sampleCommand");
+        Assert.assertNotNull(mapper);
+        Assert.assertEquals("sample.Command", mapper.getCommandClass().getName());
+        Assert.assertTrue(mapper.getVariableNames().containsAll(Arrays.asList("id", "workerId", "retries", "count", "text")));
+
+        LockedExternalTaskDto task = new LockedExternalTaskDto();
+        set(task, "id", "taskId");
+        set(task, "workerId", "worker");
+        // retries отсутствуют, в примитивное поле попадает ноль
+        Map<String, VariableValueDto> variables = new HashMap<>();
+        variables.put("count", CONVERTER.toVariable(5));
+        variables.put("text", CONVERTER.toVariable("value"));
+        variables.put("id", CONVERTER.toVariable("ignored"));
+        set(task, "variables", variables);
+
+        Object command = mapper.toCommand(task, CONVERTER);
+        Assert.assertEquals("taskId", mapper.getId(command));
+        Assert.assertEquals(5, command.getClass().getMethod("getCount").invoke(command));
+
+        CompleteExternalTaskDto completeTask = mapper.toCompleteTask(command, CONVERTER);
+        Assert.assertEquals("worker", completeTask.getWorkerId());
+        Assert.assertEquals(2, completeTask.getVariables().size());
+        Assert.assertEquals(5, completeTask.getVariables().get("count").getValue());
+        Assert.assertEquals("value", completeTask.getVariables().get("text").getValue());
+
+        ExternalTaskFailureDto failTask = mapper.toFailTask(command);
+        Assert.assertEquals("worker", failTask.getWorkerId());
+        Assert.assertEquals(0, failTask.getRetries());
+        Assert.assertEquals(0, failTask.getRetryTimeout());
+
+        Assert.assertEquals(300, mapper.toExtendLockTask(command, 300).getNewDuration());
+    }
+
+    @Test
+    public void testSignalMapper() throws ReflectiveOperationException {
+        GeneratedSignalMapper mapper = ServiceLoader.load(GeneratedSignalMapper.class, classLoader).iterator().next();
+        Assert.assertEquals("sampleSignal", mapper.getSignalName());
+        Assert.assertEquals(CamundaSignal.Delivery.MESSAGE, mapper.getDelivery());
+
+        Object signal = mapper.getSignalClass().getConstructor().newInstance();
+        set(signal, "businessKey", "key");
+
+        SignalDto signalDto = mapper.toSignal(signal, CONVERTER);
+        Assert.assertEquals("sampleSignal", signalDto.getName());
+        Assert.assertEquals("key", signalDto.getVariables().get("businessKey").getValue());
+        Assert.assertTrue(signalDto.getVariables().containsKey("count"));
+        Assert.assertNull(signalDto.getVariables().get("count").getValue());
+    }
+
+    @Test
+    public void testInaccessibleFields() {
+        Assert.assertTrue(diagnostics.stream().anyMatch(diagnostic ->
+                diagnostic.getKind() == Diagnostic.Kind.WARNING
+                        && diagnostic.getSource() != null
+                        && diagnostic.getSource().getName().endsWith("PrivateCommand.java")));
+    }
+
+    private static void set(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Class<?> type = target.getClass();
+        while (true) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+                if (type == null) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
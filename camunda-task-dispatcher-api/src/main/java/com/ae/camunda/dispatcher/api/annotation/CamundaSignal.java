@@ -25,4 +25,18 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CamundaSignal {
     String value() default "";
+
+    Delivery delivery() default Delivery.SIGNAL;
+
+    enum Delivery {
+        /**
+         * Executions waiting for signal are looked up by business key and signalled one by one
+         */
+        SIGNAL,
+        /**
+         * Message named as the signal is correlated by business key to all waiting executions in one call.
+         * Process must catch it by message event, and no start event may listen to the message
+         */
+        MESSAGE
+    }
 }
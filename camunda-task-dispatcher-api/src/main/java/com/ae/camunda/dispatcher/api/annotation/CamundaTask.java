@@ -29,4 +29,25 @@ import java.lang.annotation.Target;
 public @interface CamundaTask {
 
     String value() default "";
+
+    /**
+     * Topics of the same group are fetched by one request, groups share fetch capacity by weight.
+     * Topics without group are fetched together in default group
+     */
+    String group() default "";
+
+    /**
+     * Share of fetch capacity, weight of group is a sum of weights of its topics
+     */
+    int weight() default 1;
+
+    /**
+     * Max count of fetched tasks not yet passed to transport, {@code 0} means unlimited
+     */
+    int maxInFlight() default 0;
+
+    /**
+     * Max tasks fetched by one request, {@code 0} means common batch size
+     */
+    int batchSize() default 0;
 }
@@ -21,4 +21,15 @@ public interface ExternalTaskCompleter {
     void fail(Object task, String reason, String detail);
     void fail(Object task, String reason);
     void fail(Object task);
+
+    /**
+     * Sets lock of the task to expire in {@code newDuration} millis from now
+     */
+    void extendLock(Object task, long newDuration);
+
+    /**
+     * Extends lock of the task by {@code lockDuration} every {@code interval} millis until heartbeat is closed.
+     * Interval must be shorter than lock duration
+     */
+    Heartbeat heartbeat(Object task, long lockDuration, long interval);
 }
@@ -17,5 +17,5 @@
 package com.ae.camunda.dispatcher.api.completer;
 
 public enum Status {
-    COMPLETE, FAIL
+    COMPLETE, FAIL, EXTEND
 }
@@ -24,4 +24,6 @@ public interface Headers {
     String REASON = PREFIX + "Reason";
 
     String DETAIL = PREFIX + "ReasonDetail";
+
+    String LOCK_DURATION = PREFIX + "LockDuration";
 }
@@ -21,6 +21,7 @@ import com.ae.camunda.dispatcher.api.annotation.CamundaVar;
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.tuple.Pair;
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
@@ -48,6 +49,8 @@ public interface ExternalTaskManager {
 
     Pair<String, ExternalTaskFailureDto> toFailTask(String taskName, Object command);
 
+    Pair<String, ExtendLockOnExternalTaskDto> toExtendLockTask(String taskName, Object command, long newDuration);
+
     static String getVarName(Field field, CamundaVar camundaVar) {
         return Strings.isNullOrEmpty(camundaVar.value()) ? field.getName() : camundaVar.value();
     }
@@ -34,5 +34,7 @@ public interface SignalManager {
 
     Class<?> getSignalClass(String signalName);
 
+    CamundaSignal.Delivery getSignalDelivery(String signalName);
+
     Pair<String, SignalDto> toSignal(String signalName, Object signal);
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.api.mapper;
+
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+
+import java.util.List;
+
+/**
+ * Mapper of {@link com.ae.camunda.dispatcher.api.annotation.CamundaTask} class generated at compile time by
+ * camunda-task-dispatcher-annotation-processor. Runtime finds it by {@link java.util.ServiceLoader} and uses it
+ * instead of reflection
+ */
+public interface GeneratedTaskMapper<T> {
+
+    String getTaskName();
+
+    Class<T> getCommandClass();
+
+    /**
+     * @return names of variables fetched with the task
+     */
+    List<String> getVariableNames();
+
+    T toCommand(LockedExternalTaskDto task, VariableConverter converter);
+
+    String getId(T command);
+
+    CompleteExternalTaskDto toCompleteTask(T command, VariableConverter converter);
+
+    ExternalTaskFailureDto toFailTask(T command);
+
+    ExtendLockOnExternalTaskDto toExtendLockTask(T command, long newDuration);
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.api.mapper;
+
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+
+/**
+ * Conversion of variable values used by generated mappers, so they convert values the same way as the runtime
+ */
+public interface VariableConverter {
+
+    /**
+     * @param type type of the field, primitive types are passed boxed
+     * @return value of variable converted to the type, may be {@code null}
+     */
+    <V> V fromVariable(VariableValueDto value, Class<V> type);
+
+    VariableValueDto toVariable(Object value);
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.api.sender;
+
+/**
+ * Reports how many dispatched tasks are still waiting for task processors
+ */
+public interface BacklogProbe {
+
+    long UNKNOWN = -1;
+
+    /**
+     * @return number of sent but not consumed tasks of the topic or {@link #UNKNOWN}
+     */
+    long getBacklog(String topicName);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.api.service;
+
+import org.camunda.bpm.engine.rest.dto.externaltask.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link ExternalTaskRestService}.
+ * Futures are completed exceptionally with {@link com.ae.camunda.dispatcher.exception.CamundaRestException} on engine errors
+ */
+public interface AsyncExternalTaskRestService {
+
+    CompletableFuture<List<LockedExternalTaskDto>> fetchAndLockAsync(FetchExternalTasksDto fetchingDto);
+
+    CompletableFuture<Void> failAsync(String taskId, ExternalTaskFailureDto dto);
+
+    CompletableFuture<Void> completeAsync(String taskId, CompleteExternalTaskDto dto);
+
+    CompletableFuture<Void> extendLockAsync(String taskId, ExtendLockOnExternalTaskDto dto);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.api.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when engine calls are cut off by circuit breaker and when they are let through again.
+ * Consumers of engine stop taking new work while engine is unavailable
+ */
+public class EngineAvailabilityEvent extends ApplicationEvent {
+
+    private final boolean available;
+
+    public EngineAvailabilityEvent(Object source, boolean available) {
+        super(source);
+        this.available = available;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public String toString() {
+        return "EngineAvailabilityEvent{available=" + available + '}';
+    }
+}
@@ -21,12 +21,29 @@ import org.camunda.bpm.engine.rest.dto.CountResultDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.*;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ExternalTaskRestService {
 
     List<LockedExternalTaskDto> fetchAndLock(FetchExternalTasksDto fetchingDto) throws CamundaRestException;
 
+    /**
+     * Passes each locked task to {@code taskConsumer} as soon as it is read, so the whole batch isn't kept in memory
+     *
+     * @return count of tasks passed to consumer
+     */
+    default int fetchAndLock(FetchExternalTasksDto fetchingDto, Consumer<LockedExternalTaskDto> taskConsumer) throws CamundaRestException {
+        List<LockedExternalTaskDto> tasks = fetchAndLock(fetchingDto);
+        if (tasks == null) {
+            return 0;
+        }
+        tasks.forEach(taskConsumer);
+        return tasks.size();
+    }
+
     void fail(String taskId, ExternalTaskFailureDto dto) throws CamundaRestException;
 
     void complete(String taskId, CompleteExternalTaskDto dto) throws CamundaRestException;
+
+    void extendLock(String taskId, ExtendLockOnExternalTaskDto dto) throws CamundaRestException;
 }
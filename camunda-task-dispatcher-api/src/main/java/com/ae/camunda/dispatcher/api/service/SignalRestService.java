@@ -19,6 +19,22 @@ package com.ae.camunda.dispatcher.api.service;
 import com.ae.camunda.dispatcher.exception.CamundaRestException;
 import org.camunda.bpm.engine.rest.dto.SignalDto;
 
+import java.util.Collection;
+
 public interface SignalRestService {
     void fire(String businessKey, SignalDto signal) throws CamundaRestException;
+
+    /**
+     * Signals given executions without looking them up, e.g. the ones failed by previous attempt
+     *
+     * @throws com.ae.camunda.dispatcher.exception.PartialSignalException if some of several executions have failed
+     */
+    void fire(SignalDto signal, Collection<String> executionIds) throws CamundaRestException;
+
+    /**
+     * Delivers signal as message correlated to all executions of business key waiting for it
+     *
+     * @throws CamundaRestException with 404 code if nothing waits for the message
+     */
+    void correlate(String businessKey, SignalDto signal) throws CamundaRestException;
 }
@@ -16,7 +16,28 @@
 
 package com.ae.camunda.dispatcher.exception;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Set;
+
 public class CamundaRestException extends Exception {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Types of engine error response which repeat for the same request
+     */
+    private static final Set<String> DETERMINISTIC_ERROR_TYPES = Set.of("BadUserRequestException", "NotFoundException");
+
+    /**
+     * Range of error codes engine leaves to business errors of process applications
+     */
+    private static final int MIN_CUSTOM_ERROR_CODE = 20000;
+
+    private static final int MAX_CUSTOM_ERROR_CODE = 39999;
+
     private int httpCode;
 
     private String response;
@@ -37,6 +58,62 @@ public class CamundaRestException extends Exception {
         this.response = response;
     }
 
+    /**
+     * @return {@code true} if engine rejected the request itself, so repeating it makes no sense
+     */
+    public boolean isClientError() {
+        return httpCode >= 400 && httpCode < 500;
+    }
+
+    /**
+     * @return {@code true} if engine failed to handle the request for a reason which doesn't go away, e.g. unknown
+     * task or business error, so repeating such request gives the same error. Other 500 responses, e.g.
+     * {@code OptimisticLockingException}, deadlock or lost DB connection, are transient
+     */
+    public boolean isEngineError() {
+        if (httpCode != 500 || response == null || response.isEmpty()) {
+            return false;
+        }
+        final JsonNode error;
+        try {
+            error = OBJECT_MAPPER.readTree(response);
+        } catch (IOException e) {
+            return false;
+        }
+        if (error == null || !error.isObject()) {
+            return false;
+        }
+
+        String type = error.path("type").asText("");
+        type = type.substring(type.lastIndexOf('.') + 1);
+        if (DETERMINISTIC_ERROR_TYPES.contains(type)) {
+            return true;
+        }
+        int code = error.path("code").asInt(0);
+        return code >= MIN_CUSTOM_ERROR_CODE && code <= MAX_CUSTOM_ERROR_CODE;
+    }
+
+    /**
+     * @return {@code false} for client and engine errors, also wrapped into another exception,
+     * other exceptions are worth to retry
+     */
+    public static boolean isRetryable(Exception e) {
+        Throwable error = e;
+        while (error != null) {
+            if (error instanceof CamundaRestException) {
+                CamundaRestException cre = (CamundaRestException) error;
+                if (cre.isClientError() || cre.isEngineError()) {
+                    return false;
+                }
+                if (cre.getHttpCode() != 0) {
+                    return true;
+                }
+            }
+            error = error.getCause() == error ? null : error.getCause();
+        }
+        return true;
+    }
+
     public static CamundaRestException fromCodeAndResponse(int code, String response) {
         CamundaRestException exception = new CamundaRestException();
         exception.setHttpCode(code);
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.exception;
+
+/**
+ * Call was rejected by dispatcher before it reached engine, e.g. circuit breaker is open or concurrency limit
+ * is reached. Such call is worth to repeat later, but it isn't a failed attempt
+ */
+public class EngineRejectedException extends CamundaRestException {
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    public EngineRejectedException(String message) {
+        super(message);
+        setHttpCode(SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * @return {@code true} if the exception or one of its causes is {@link EngineRejectedException}
+     */
+    public static boolean isRejected(Exception e) {
+        Throwable error = e;
+        while (error != null) {
+            if (error instanceof EngineRejectedException) {
+                return true;
+            }
+            error = error.getCause() == error ? null : error.getCause();
+        }
+        return false;
+    }
+}
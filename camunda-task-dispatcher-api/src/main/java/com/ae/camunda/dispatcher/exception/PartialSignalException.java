@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.exception;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signal has reached only some of executions, so only the failed ones should be signalled again
+ */
+public class PartialSignalException extends CamundaRestException {
+
+    private final List<String> failedExecutionIds;
+
+    public PartialSignalException(String message, Collection<String> failedExecutionIds, Exception cause) {
+        super(message, cause);
+        this.failedExecutionIds = Collections.unmodifiableList(new ArrayList<>(failedExecutionIds));
+        if (cause instanceof CamundaRestException) {
+            setHttpCode(((CamundaRestException) cause).getHttpCode());
+        }
+    }
+
+    public List<String> getFailedExecutionIds() {
+        return failedExecutionIds;
+    }
+
+    /**
+     * @param failures errors by execution id
+     * @throws CamundaRestException error of the only execution or {@link PartialSignalException} if there are several
+     */
+    public static void throwIfFailed(String signalName, int total, Map<String, Exception> failures) throws CamundaRestException {
+        if (failures.isEmpty()) {
+            return;
+        }
+
+        Exception first = failures.values().iterator().next();
+        if (total == 1) {
+            if (first instanceof CamundaRestException) {
+                throw (CamundaRestException) first;
+            }
+            throw new CamundaRestException(first);
+        }
+        throw new PartialSignalException("Signal [" + signalName + "] has failed for " + failures.size() + " of " + total
+                + " execution(-s), first cause: " + first.getMessage(), failures.keySet(), first);
+    }
+}
@@ -18,31 +18,102 @@ package com.ae.camunda.dispatcher.completer.jms;
 
 import com.ae.camunda.dispatcher.api.annotation.task.ErrorMessage;
 import com.ae.camunda.dispatcher.api.completer.ExternalTaskCompleter;
+import com.ae.camunda.dispatcher.api.completer.Heartbeat;
 import com.ae.camunda.dispatcher.api.completer.Status;
+import com.ae.camunda.dispatcher.util.ConsumerWithCheckedException;
 import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.ae.camunda.dispatcher.util.RetryScheduler;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.ResourceAllocationException;
+import org.springframework.jms.UncategorizedJmsException;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ReflectionUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Component
 public class JmsExternalTaskCompleter implements ExternalTaskCompleter {
 
+    private static final Logger LOG = LoggerFactory.getLogger(JmsExternalTaskCompleter.class);
+
     @Autowired
     private JmsExternalTaskSender taskSender;
 
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("externalTaskHeartbeat-%d").setDaemon(true).build()
+    );
+
+    /**
+     * Sends failed by lost broker connection are retried in the calling thread, exception of the last attempt
+     * is thrown to the caller as well as any other exception
+     */
+    @Value("${camunda.dispatcher.jms.completer.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    @Value("${camunda.dispatcher.jms.completer.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${camunda.dispatcher.jms.completer.retry.initial-delay:1000}")
+    private long retryInitialDelay;
+
+    @Value("${camunda.dispatcher.jms.completer.retry.max-delay:5000}")
+    private long retryMaxDelay;
+
+    @Value("${camunda.dispatcher.jms.completer.retry.shutdown-timeout:10000}")
+    private long retryShutdownTimeout;
+
+    private RetryScheduler retryScheduler;
+
+    /**
+     * Heartbeats by task identity, stopped before the task is completed or failed
+     */
+    private final Map<Object, TaskHeartbeat> heartbeats = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    @PostConstruct
+    public void init() {
+        if (retryEnabled) {
+            retryScheduler = new RetryScheduler("externalTaskCompleterRetry", 1, 0, retryMaxAttempts
+                    , retryInitialDelay, retryMaxDelay, JmsExternalTaskCompleter::isConnectionFailure);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        heartbeatScheduler.shutdownNow();
+        if (retryScheduler != null) {
+            retryScheduler.shutdown(retryShutdownTimeout);
+        }
+    }
+
     @Override
     public void complete(Object task) {
-        taskSender.send(task, Status.COMPLETE);
+        stopHeartbeat(task);
+        send(sender -> sender.send(task, Status.COMPLETE));
     }
 
     @Override
     public void fail(final Object task, final String reason, final String detail) {
-        taskSender.send(task, Status.FAIL, reason, detail);
+        stopHeartbeat(task);
+        send(sender -> sender.send(task, Status.FAIL, reason, detail));
     }
 
     @Override
@@ -62,4 +133,117 @@ public class JmsExternalTaskCompleter implements ExternalTaskCompleter {
 
         fail(task, Strings.emptyToNull(errors.stream().collect(Collectors.joining("; "))));
     }
+
+    @Override
+    public void extendLock(Object task, long newDuration) {
+        taskSender.sendExtendLock(task, newDuration);
+    }
+
+    @Override
+    public Heartbeat heartbeat(Object task, long lockDuration, long interval) {
+        if (interval >= lockDuration) {
+            throw new IllegalArgumentException("Heartbeat interval [" + interval + "] must be less than lock duration [" + lockDuration + "]");
+        }
+
+        TaskHeartbeat heartbeat = new TaskHeartbeat(task, lockDuration);
+        heartbeat.future = heartbeatScheduler.scheduleWithFixedDelay(heartbeat::beat, interval, interval, TimeUnit.MILLISECONDS);
+        TaskHeartbeat previous = heartbeats.put(task, heartbeat);
+        if (previous != null) {
+            previous.close();
+        }
+        return heartbeat;
+    }
+
+    /**
+     * EXTEND shares the queue with COMPLETE and FAIL, so it mustn't be sent after them
+     */
+    private void stopHeartbeat(Object task) {
+        if (task == null) {
+            return;
+        }
+        TaskHeartbeat heartbeat = heartbeats.get(task);
+        if (heartbeat != null) {
+            heartbeat.close();
+        }
+    }
+
+    private void send(ConsumerWithCheckedException<JmsExternalTaskSender> send) {
+        JavaUtils.callWithoutCheckedException(() -> {
+            if (retryScheduler == null) {
+                send.accept(taskSender);
+            } else {
+                retryScheduler.executeBlocking(send, taskSender);
+            }
+            return null;
+        });
+    }
+
+    private class TaskHeartbeat implements Heartbeat {
+
+        private final Object task;
+
+        private final long lockDuration;
+
+        /**
+         * Held while lock extension is being sent, so close waits for it
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile ScheduledFuture<?> future;
+
+        private boolean closed;
+
+        private TaskHeartbeat(Object task, long lockDuration) {
+            this.task = task;
+            this.lockDuration = lockDuration;
+        }
+
+        private void beat() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    extendLock(task, lockDuration);
+                }
+            } catch (RuntimeException e) {
+                // следующая попытка ещё успеет до истечения блокировки
+                LOG.warn("Can't extend lock of task [{}], cause: {}", task, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                closed = true;
+                future.cancel(false);
+            } finally {
+                lock.unlock();
+            }
+            heartbeats.remove(task, this);
+        }
+    }
+
+    /**
+     * @return {@code true} if broker is unreachable, errors of message itself and programming errors are not
+     * worth to retry
+     */
+    public static boolean isConnectionFailure(Exception e) {
+        if (e instanceof UncategorizedJmsException
+                || e instanceof ResourceAllocationException
+                || e instanceof org.springframework.jms.IllegalStateException) {
+            return true;
+        }
+        if (e instanceof JmsException) {
+            Throwable cause = e.getCause();
+            while (cause != null && cause != cause.getCause()) {
+                if (cause instanceof IOException) {
+                    return true;
+                }
+                cause = cause.getCause();
+            }
+        }
+        return false;
+    }
 }
@@ -50,18 +50,22 @@ public class JmsExternalTaskSender {
     private JmsTemplate jmsTemplate;
 
     public void send(Object task, Status status) {
-        send(task, queueIn, status, null, null);
+        send(task, queueIn, status, null, null, null);
     }
 
     public void send(Object task, Status status, String reason) {
-        send(task, queueIn, status, reason, null);
+        send(task, queueIn, status, reason, null, null);
     }
 
     public void send(Object task, Status status, String reason, String detail) {
-        send(task, queueIn, status, reason, detail);
+        send(task, queueIn, status, reason, detail, null);
     }
 
-    private void send(Object task, String queue, Status status, String reason, String detail) {
+    public void sendExtendLock(Object task, long lockDuration) {
+        send(task, queueIn, Status.EXTEND, null, null, lockDuration);
+    }
+
+    private void send(Object task, String queue, Status status, String reason, String detail, Long lockDuration) {
         jmsTemplate.send(queue, (Session session) -> {
             TextMessage message = session.createTextMessage();
             message.setText(taskMapper.map(task));
@@ -82,6 +86,11 @@ public class JmsExternalTaskSender {
                 setStringProperty(message, Headers.DETAIL, detail);
             }
 
+            if (lockDuration != null) {
+                LOG.debug("Setting header [{}] value [{}]", Headers.LOCK_DURATION, lockDuration);
+                message.setLongProperty(Headers.LOCK_DURATION, lockDuration);
+            }
+
             return message;
         });
     }
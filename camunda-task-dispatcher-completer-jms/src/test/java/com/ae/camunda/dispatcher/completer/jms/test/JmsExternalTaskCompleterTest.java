@@ -17,10 +17,13 @@
 package com.ae.camunda.dispatcher.completer.jms.test;
 
 import com.ae.camunda.dispatcher.api.annotation.task.ErrorMessage;
+import com.ae.camunda.dispatcher.api.completer.Heartbeat;
 import com.ae.camunda.dispatcher.api.completer.Status;
 import com.ae.camunda.dispatcher.completer.jms.JmsExternalTaskCompleter;
 import com.ae.camunda.dispatcher.completer.jms.JmsExternalTaskSender;
 import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.ae.camunda.dispatcher.util.RetryScheduler;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +32,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jms.UncategorizedJmsException;
 import org.springframework.util.ReflectionUtils;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -50,6 +54,19 @@ public class JmsExternalTaskCompleterTest {
         );
     }
 
+    @After
+    public void destroy() throws InterruptedException {
+        completer.destroy();
+    }
+
+    private void enableRetry() {
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(JmsExternalTaskCompleter.class, "retryScheduler")
+                , completer
+                , new RetryScheduler("test", 1, 0, 3, 10, 100, JmsExternalTaskCompleter::isConnectionFailure)
+        );
+    }
+
     @Test
     public void testComplete() {
         completer.complete(null);
@@ -124,6 +141,97 @@ public class JmsExternalTaskCompleterTest {
         Assert.assertEquals(error, reason);
     }
 
+    @Test
+    public void testCompleteRetry() {
+        enableRetry();
+        Mockito.doThrow(new UncategorizedJmsException("broker is down"))
+                .doNothing()
+                .when(sender).send(Mockito.any(), Mockito.any(Status.class));
+
+        completer.complete(new Object());
+
+        Mockito.verify(sender, Mockito.times(2)).send(Mockito.any(), Mockito.eq(Status.COMPLETE));
+    }
+
+    @Test
+    public void testCompleteRetryExhausted() {
+        enableRetry();
+        Mockito.doThrow(new UncategorizedJmsException("broker is down"))
+                .when(sender).send(Mockito.any(), Mockito.any(Status.class));
+
+        try {
+            completer.complete(new Object());
+            Assert.fail("Exception of the last attempt is expected");
+        } catch (UncategorizedJmsException e) {
+            // ok
+        }
+        Mockito.verify(sender, Mockito.times(3)).send(Mockito.any(), Mockito.eq(Status.COMPLETE));
+    }
+
+    @Test
+    public void testCompleteNotRetried() {
+        enableRetry();
+        Mockito.doThrow(new IllegalStateException("can't serialize task"))
+                .when(sender).send(Mockito.any(), Mockito.any(Status.class));
+
+        try {
+            completer.complete(new Object());
+            Assert.fail("Exception is expected");
+        } catch (IllegalStateException e) {
+            // ok
+        }
+        Mockito.verify(sender, Mockito.times(1)).send(Mockito.any(), Mockito.eq(Status.COMPLETE));
+    }
+
+    @Test(expected = UncategorizedJmsException.class)
+    public void testCompleteWithoutRetry() {
+        Mockito.doThrow(new UncategorizedJmsException("broker is down"))
+                .when(sender).send(Mockito.any(), Mockito.any(Status.class));
+
+        completer.complete(new Object());
+    }
+
+    @Test
+    public void testExtendLock() {
+        Object task = new Object();
+        completer.extendLock(task, 1000);
+
+        Mockito.verify(sender, Mockito.times(1)).sendExtendLock(task, 1000);
+    }
+
+    @Test
+    public void testHeartbeat() throws InterruptedException {
+        Object task = new Object();
+        Heartbeat heartbeat = completer.heartbeat(task, 1000, 50);
+
+        Thread.sleep(300);
+        heartbeat.close();
+        Mockito.verify(sender, Mockito.atLeast(2)).sendExtendLock(task, 1000);
+
+        Mockito.clearInvocations(sender);
+        Thread.sleep(200);
+        Mockito.verify(sender, Mockito.never()).sendExtendLock(Mockito.any(), Mockito.anyLong());
+    }
+
+    @Test
+    public void testHeartbeatStoppedByComplete() throws InterruptedException {
+        Object task = new Object();
+        try (Heartbeat heartbeat = completer.heartbeat(task, 1000, 50)) {
+            Thread.sleep(200);
+            // продление после завершения получило бы 404
+            completer.complete(task);
+
+            Mockito.clearInvocations(sender);
+            Thread.sleep(200);
+            Mockito.verify(sender, Mockito.never()).sendExtendLock(Mockito.any(), Mockito.anyLong());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHeartbeatWrongInterval() {
+        completer.heartbeat(new Object(), 1000, 1000);
+    }
+
     private static class Command {
         @ErrorMessage
         private String error;
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.plugin;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.el.Expression;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds listener to external service, send and business rule tasks. Listener notifies about task topic
+ * after transaction creating the task is committed, so dispatcher doesn't fetch before the task is visible.
+ * Notification never fails the process, errors are only logged
+ */
+public class TopicActivityParseListener extends AbstractBpmnParseListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicActivityParseListener.class);
+
+    private static final String EXTERNAL_TYPE = "external";
+
+    private final TopicActivityPublisher publisher;
+
+    public TopicActivityParseListener(TopicActivityPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void parseServiceTask(Element serviceTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        addListener(serviceTaskElement, activity);
+    }
+
+    @Override
+    public void parseSendTask(Element sendTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        addListener(sendTaskElement, activity);
+    }
+
+    @Override
+    public void parseBusinessRuleTask(Element businessRuleTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        addListener(businessRuleTaskElement, activity);
+    }
+
+    private void addListener(Element element, ActivityImpl activity) {
+        if (!EXTERNAL_TYPE.equals(element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "type"))) {
+            return;
+        }
+        String topic = element.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "topic");
+        if (topic == null || topic.isEmpty()) {
+            return;
+        }
+
+        boolean isExpression = topic.contains("${") || topic.contains("#{");
+        ExecutionListener listener = execution -> {
+            final String topicName;
+            try {
+                if (isExpression) {
+                    Expression expression = Context.getProcessEngineConfiguration().getExpressionManager().createExpression(topic);
+                    topicName = String.valueOf(expression.getValue(execution));
+                } else {
+                    topicName = topic;
+                }
+            } catch (RuntimeException e) {
+                // задача все равно будет получена опросом движка
+                LOG.warn("Can't resolve topic [{}] of activity [{}], cause: {}", topic, activity.getId(), e.getMessage());
+                return;
+            }
+            Context.getCommandContext()
+                    .getTransactionContext()
+                    .addTransactionListener(TransactionState.COMMITTED, commandContext -> publish(topicName));
+        };
+        activity.addBuiltInListener(ExecutionListener.EVENTNAME_START, listener);
+    }
+
+    private void publish(String topicName) {
+        try {
+            publisher.publish(topicName);
+        } catch (RuntimeException e) {
+            LOG.warn("Can't notify dispatcher about activity at topic [{}], cause: {}", topicName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.plugin;
+
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process engine plugin notifying dispatcher about new external tasks through JMS topic.
+ * Dispatcher listens to it with {@code camunda.dispatcher.jms.topic-activity.enabled=true}.
+ * <p>
+ * Register it in {@code bpm-platform.xml} of shared engine:
+ * <pre>
+ * &lt;plugin&gt;
+ *   &lt;class&gt;com.ae.camunda.dispatcher.plugin.TopicActivityPlugin&lt;/class&gt;
+ *   &lt;properties&gt;
+ *     &lt;property name="brokerUrl"&gt;tcp://localhost:61616&lt;/property&gt;
+ *   &lt;/properties&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ * or add it to {@code processEnginePlugins} of Spring process engine configuration.
+ * Connection to broker is closed together with the engine
+ */
+public class TopicActivityPlugin extends AbstractProcessEnginePlugin {
+
+    private String brokerUrl = "tcp://localhost:61616";
+
+    private String username;
+
+    private String password;
+
+    private String topic = "dispatcherTopicActivity";
+
+    /**
+     * Notification is useless after dispatcher polled the engine anyway
+     */
+    private long timeToLive = 60000;
+
+    private TopicActivityPublisher publisher;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        publisher = createPublisher();
+
+        List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+        if (parseListeners == null) {
+            parseListeners = new ArrayList<>();
+            processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+        }
+        parseListeners.add(new TopicActivityParseListener(publisher));
+
+        // у плагина нет обратного вызова на закрытие движка, но закрытие выполняется командой
+        List<CommandInterceptor> interceptors = processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired();
+        if (interceptors == null) {
+            interceptors = new ArrayList<>();
+            processEngineConfiguration.setCustomPreCommandInterceptorsTxRequired(interceptors);
+        }
+        interceptors.add(new EngineCloseInterceptor(publisher));
+    }
+
+    protected TopicActivityPublisher createPublisher() {
+        return TopicActivityPublisher.create(brokerUrl, username, password, topic, timeToLive);
+    }
+
+    public String getBrokerUrl() {
+        return brokerUrl;
+    }
+
+    public void setBrokerUrl(String brokerUrl) {
+        this.brokerUrl = brokerUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Closes publisher after the command which engine runs when it is closed
+     */
+    private static class EngineCloseInterceptor extends CommandInterceptor {
+
+        /**
+         * Command class isn't public
+         */
+        private static final String ENGINE_CLOSE_COMMAND = "org.camunda.bpm.engine.impl.SchemaOperationProcessEngineClose";
+
+        private final TopicActivityPublisher publisher;
+
+        private EngineCloseInterceptor(TopicActivityPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public <T> T execute(Command<T> command) {
+            try {
+                return next.execute(command);
+            } finally {
+                if (ENGINE_CLOSE_COMMAND.equals(command.getClass().getName())) {
+                    publisher.close();
+                }
+            }
+        }
+    }
+}
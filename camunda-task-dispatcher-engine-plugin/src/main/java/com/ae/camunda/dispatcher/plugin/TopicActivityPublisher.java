@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.plugin;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends names of topics having new external tasks to JMS topic. Notifications are best effort:
+ * they are sent from own thread, repeated names are coalesced and failures are only logged,
+ * dispatcher still polls the engine and picks such tasks up later
+ */
+public class TopicActivityPublisher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicActivityPublisher.class);
+
+    private final ConnectionFactory connectionFactory;
+
+    private final String destination;
+
+    private final long timeToLive;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final ExecutorService executor;
+
+    // используются только потоком executor
+    private Connection connection;
+
+    private Session session;
+
+    private MessageProducer producer;
+
+    public TopicActivityPublisher(ConnectionFactory connectionFactory, String destination, long timeToLive) {
+        this.connectionFactory = connectionFactory;
+        this.destination = destination;
+        this.timeToLive = timeToLive;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "topicActivityPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static TopicActivityPublisher create(String brokerUrl, String username, String password, String destination, long timeToLive) {
+        ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory(brokerUrl);
+        if (username != null && !username.isEmpty()) {
+            connectionFactory.setUserName(username);
+            connectionFactory.setPassword(password);
+        }
+        return new TopicActivityPublisher(connectionFactory, destination, timeToLive);
+    }
+
+    /**
+     * Notification published after {@link #close()} is dropped
+     */
+    public void publish(String topicName) {
+        pending.add(topicName);
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Publisher is closed, notification about topic [{}] is dropped", topicName);
+            }
+        }
+    }
+
+    /**
+     * Sends pending notifications and closes connection, repeated call does nothing
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            executor.execute(this::disconnect);
+            executor.shutdown();
+        }
+    }
+
+    private void flush() {
+        // сбрасываем до чтения, чтобы топик, добавленный во время отправки, запланировал новую
+        scheduled.set(false);
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            String topicName = iterator.next();
+            iterator.remove();
+            send(topicName);
+        }
+    }
+
+    private void send(String topicName) {
+        try {
+            if (producer == null) {
+                connect();
+            }
+            producer.send(session.createTextMessage(topicName));
+        } catch (JMSException e) {
+            LOG.warn("Can't notify dispatcher about activity at topic [{}], cause: {}", topicName, e.getMessage());
+            disconnect();
+        }
+    }
+
+    private void connect() throws JMSException {
+        connection = connectionFactory.createConnection();
+        connection.start();
+        session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        producer = session.createProducer(session.createTopic(destination));
+        producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        producer.setTimeToLive(timeToLive);
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (JMSException e) {
+                LOG.debug("Can't close connection", e);
+            }
+        }
+        connection = null;
+        session = null;
+        producer = null;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.plugin.test;
+
+import com.ae.camunda.dispatcher.plugin.TopicActivityPlugin;
+import com.ae.camunda.dispatcher.plugin.TopicActivityPublisher;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.UUID;
+
+public class TopicActivityParseListenerTest {
+
+    private static final String PROCESS = "Topic_Process";
+
+    private TopicActivityPublisher publisher;
+
+    private ProcessEngine processEngine;
+
+    @Before
+    public void init() {
+        publisher = Mockito.mock(TopicActivityPublisher.class);
+
+        StandaloneInMemProcessEngineConfiguration configuration = new StandaloneInMemProcessEngineConfiguration();
+        configuration.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=LEGACY");
+        configuration.setProcessEngineName(UUID.randomUUID().toString());
+        configuration.getProcessEnginePlugins().add(new TopicActivityPlugin() {
+            @Override
+            protected TopicActivityPublisher createPublisher() {
+                return publisher;
+            }
+        });
+        processEngine = configuration.buildProcessEngine();
+    }
+
+    @After
+    public void destroy() {
+        if (processEngine != null) {
+            processEngine.close();
+        }
+    }
+
+    @Test
+    public void testPublish() {
+        deploy("simpleCommand");
+
+        processEngine.getRuntimeService().startProcessInstanceByKey(PROCESS);
+
+        Mockito.verify(publisher, Mockito.times(1)).publish("simpleCommand");
+    }
+
+    @Test
+    public void testPublishExpression() {
+        deploy("${topicVar}");
+
+        processEngine.getRuntimeService().startProcessInstanceByKey(PROCESS, Collections.singletonMap("topicVar", "expressionCommand"));
+
+        Mockito.verify(publisher, Mockito.times(1)).publish("expressionCommand");
+    }
+
+    @Test
+    public void testPublishFailure() {
+        deploy("simpleCommand");
+        Mockito.doThrow(new IllegalStateException("broker is down")).when(publisher).publish(Mockito.anyString());
+
+        processEngine.getRuntimeService().startProcessInstanceByKey(PROCESS);
+
+        Assert.assertEquals(1, processEngine.getExternalTaskService().createExternalTaskQuery().topicName("simpleCommand").count());
+    }
+
+    @Test
+    public void testCloseEngine() {
+        Mockito.verify(publisher, Mockito.never()).close();
+
+        processEngine.close();
+        processEngine = null;
+
+        Mockito.verify(publisher, Mockito.times(1)).close();
+    }
+
+    private void deploy(String topic) {
+        BpmnModelInstance model = Bpmn.createExecutableProcess(PROCESS)
+                .startEvent()
+                .serviceTask("task").camundaExternalTask(topic)
+                .endEvent()
+                .done();
+        processEngine.getRepositoryService().createDeployment()
+                .addModelInstance(PROCESS + ".bpmn", model)
+                .deploy();
+    }
+}
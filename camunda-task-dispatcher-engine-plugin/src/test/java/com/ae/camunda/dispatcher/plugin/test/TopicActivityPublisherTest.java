@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.plugin.test;
+
+import com.ae.camunda.dispatcher.plugin.TopicActivityPublisher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TopicActivityPublisherTest {
+
+    private static final long TIMEOUT = 5000;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private MessageProducer producer;
+
+    @Mock
+    private Topic topic;
+
+    @Mock
+    private TextMessage message;
+
+    private TopicActivityPublisher publisher;
+
+    @Before
+    public void init() throws JMSException {
+        Mockito.when(connectionFactory.createConnection()).thenReturn(connection);
+        Mockito.when(connection.createSession(Mockito.anyBoolean(), Mockito.anyInt())).thenReturn(session);
+        Mockito.when(session.createTopic(Mockito.anyString())).thenReturn(topic);
+        Mockito.when(session.createProducer(topic)).thenReturn(producer);
+        Mockito.when(session.createTextMessage(Mockito.anyString())).thenReturn(message);
+
+        publisher = new TopicActivityPublisher(connectionFactory, "activity", 1000);
+    }
+
+    @After
+    public void destroy() {
+        publisher.close();
+    }
+
+    @Test
+    public void testPublish() throws JMSException {
+        publisher.publish("simpleCommand");
+
+        Mockito.verify(producer, Mockito.timeout(TIMEOUT).times(1)).send(message);
+        Mockito.verify(session, Mockito.times(1)).createTextMessage("simpleCommand");
+        Mockito.verify(producer, Mockito.times(1)).setTimeToLive(1000);
+    }
+
+    @Test
+    public void testReconnectAfterFailure() throws JMSException {
+        Mockito.doThrow(new JMSException("connection lost")).doNothing().when(producer).send(message);
+
+        publisher.publish("simpleCommand");
+        Mockito.verify(connection, Mockito.timeout(TIMEOUT).times(1)).close();
+
+        publisher.publish("simpleCommand");
+        Mockito.verify(producer, Mockito.timeout(TIMEOUT).times(2)).send(message);
+        Mockito.verify(connectionFactory, Mockito.times(2)).createConnection();
+    }
+
+    @Test
+    public void testClose() throws JMSException {
+        publisher.publish("simpleCommand");
+        Mockito.verify(producer, Mockito.timeout(TIMEOUT).times(1)).send(message);
+
+        publisher.close();
+        publisher.close();
+        publisher.publish("otherCommand");
+
+        Mockito.verify(connection, Mockito.timeout(TIMEOUT).times(1)).close();
+        Mockito.verify(session, Mockito.never()).createTextMessage("otherCommand");
+    }
+}
@@ -16,12 +16,14 @@
 
 package com.ae.camunda.dispatcher.receiver.jms;
 
+import com.ae.camunda.dispatcher.util.ThreadUtils;
 import com.google.common.base.Strings;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.command.ActiveMQQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.listener.DefaultMessageListenerContainer;
 
@@ -44,6 +46,12 @@ public class JmsExternalTaskReceiverConfig {
     @Value("${camunda.dispatcher.jms.receive-timeout:5000}")
     private long receiveTimeout;
 
+    /**
+     * Run listener consumers on virtual threads, requires Java 21+
+     */
+    @Value("${camunda.dispatcher.jms.virtual-threads:false}")
+    private boolean virtualThreads;
+
     @Value("${camunda.dispatcher.jms.activemq.broker-url:tcp://localhost:61616}")
     private String brokerUrl;
 
@@ -87,6 +95,13 @@ public class JmsExternalTaskReceiverConfig {
         listenerContainer.setConcurrentConsumers(concurrentConsumers);
         listenerContainer.setMaxMessagesPerTask(maxMessagesPerTask);
         listenerContainer.setReceiveTimeout(receiveTimeout);
+        configureTaskExecutor(listenerContainer, "taskMessageListenerContainer");
         return listenerContainer;
     }
+
+    private void configureTaskExecutor(DefaultMessageListenerContainer listenerContainer, String name) {
+        if (virtualThreads) {
+            listenerContainer.setTaskExecutor(new SimpleAsyncTaskExecutor(ThreadUtils.createThreadFactory(name + "-", true)));
+        }
+    }
 }
@@ -16,8 +16,11 @@
 
 package com.ae.camunda.dispatcher.model;
 
+import com.ae.camunda.dispatcher.util.FieldAccessor;
+
 import java.lang.reflect.Field;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 public class EntityMetadata<T> {
@@ -28,10 +31,17 @@ public class EntityMetadata<T> {
 
     private Map<String, Field> fields;
 
+    /**
+     * Accessors of {@link #fields} by the same var names, compiled once for all conversions of the entity
+     */
+    private Map<String, FieldAccessor> accessors;
+
     public EntityMetadata(String name, Class<T> clazz, Map<String, Field> fields) {
         this.name = name;
         this.clazz = clazz;
         this.fields = fields;
+        this.accessors = new HashMap<>();
+        fields.forEach((varName, field) -> accessors.put(varName, FieldAccessor.of(field)));
     }
 
     public String getName() {
@@ -45,4 +55,12 @@ public class EntityMetadata<T> {
     public Map<String, Field> getFields() {
         return Collections.unmodifiableMap(fields);
     }
+
+    public Map<String, FieldAccessor> getAccessors() {
+        return Collections.unmodifiableMap(accessors);
+    }
+
+    public FieldAccessor getAccessor(String varName) {
+        return accessors.get(varName);
+    }
 }
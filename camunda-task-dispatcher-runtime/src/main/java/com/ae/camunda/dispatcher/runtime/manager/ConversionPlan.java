@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.manager;
+
+import com.ae.camunda.dispatcher.api.mapper.VariableConverter;
+import com.ae.camunda.dispatcher.model.EntityMetadata;
+import com.ae.camunda.dispatcher.runtime.manager.util.FieldUtils;
+import com.ae.camunda.dispatcher.util.FieldAccessor;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion of {@link LockedExternalTaskDto} to command of one topic, resolved once when the topic is loaded.
+ * <p>
+ * Fields of the task DTO are copied by pairs of accessors. Variables are looked up by the variables present in
+ * the task, so conversion costs as many steps as there are values. Variable of the same name as a task field is
+ * skipped, field overwrites it anyway
+ */
+final class ConversionPlan {
+
+    private final EntityMetadata<?> metadata;
+
+    private final Constructor<?> constructor;
+
+    private final FieldAccessor[] commandFields;
+
+    private final FieldAccessor[] taskFields;
+
+    private final Map<String, VariableSlot> variableSlots;
+
+    private ConversionPlan(EntityMetadata<?> metadata, Constructor<?> constructor, List<FieldAccessor> commandFields
+            , List<FieldAccessor> taskFields, Map<String, VariableSlot> variableSlots) {
+        this.metadata = metadata;
+        this.constructor = constructor;
+        this.commandFields = commandFields.toArray(new FieldAccessor[0]);
+        this.taskFields = taskFields.toArray(new FieldAccessor[0]);
+        this.variableSlots = variableSlots;
+    }
+
+    static ConversionPlan of(EntityMetadata<?> metadata) {
+        Map<String, FieldAccessor> taskAccessors = FieldUtils.getAccessors(LockedExternalTaskDto.class);
+
+        List<FieldAccessor> commandFields = new ArrayList<>();
+        List<FieldAccessor> taskFields = new ArrayList<>();
+        Map<String, VariableSlot> variableSlots = new HashMap<>();
+        metadata.getAccessors().forEach((varName, accessor) -> {
+            FieldAccessor taskAccessor = taskAccessors.get(varName);
+            if (taskAccessor != null) {
+                commandFields.add(accessor);
+                taskFields.add(taskAccessor);
+            } else {
+                variableSlots.put(varName, new VariableSlot(accessor));
+            }
+        });
+
+        return new ConversionPlan(metadata, findConstructor(metadata.getClazz()), commandFields, taskFields, variableSlots);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> clazz) {
+        try {
+            Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            // ошибка будет при первой задаче, как и раньше
+            return null;
+        }
+    }
+
+    Object toCommand(LockedExternalTaskDto task, VariableConverter converter) {
+        if (constructor == null) {
+            throw new IllegalStateException("Command '" + metadata.getName() + "' has no constructor without parameters");
+        }
+        Object command = JavaUtils.callWithoutCheckedException(constructor::newInstance);
+
+        Map<String, VariableValueDto> variables = task.getVariables();
+        if (variables != null) {
+            variables.forEach((varName, value) -> {
+                VariableSlot slot = variableSlots.get(varName);
+                if (slot != null && value != null) {
+                    slot.accessor.set(command, converter.fromVariable(value, slot.type));
+                }
+            });
+        }
+
+        for (int i = 0; i < commandFields.length; i++) {
+            commandFields[i].set(command, taskFields[i].get(task));
+        }
+        return command;
+    }
+
+    private static final class VariableSlot {
+
+        private final FieldAccessor accessor;
+
+        /**
+         * Primitive is boxed, so value of its wrapper type is taken as is instead of parsing its string
+         */
+        private final Class<?> type;
+
+        private VariableSlot(FieldAccessor accessor) {
+            this.accessor = accessor;
+            this.type = ClassUtils.resolvePrimitiveIfNecessary(accessor.getType());
+        }
+    }
+}
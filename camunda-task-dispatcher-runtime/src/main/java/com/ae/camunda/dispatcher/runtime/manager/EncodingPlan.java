@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.manager;
+
+import com.ae.camunda.dispatcher.model.EntityMetadata;
+import com.ae.camunda.dispatcher.util.FieldAccessor;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Fields of command or signal sent to engine as variables, with encoders chosen by declared field types once
+ * when the entity is loaded
+ */
+final class EncodingPlan {
+
+    private final String[] names;
+
+    private final FieldAccessor[] accessors;
+
+    private final VariableEncoder<Object>[] encoders;
+
+    @SuppressWarnings("unchecked")
+    private EncodingPlan(List<String> names, List<FieldAccessor> accessors, List<VariableEncoder<Object>> encoders) {
+        this.names = names.toArray(new String[0]);
+        this.accessors = accessors.toArray(new FieldAccessor[0]);
+        this.encoders = encoders.toArray(new VariableEncoder[0]);
+    }
+
+    /**
+     * @param variables filter of variable names, fields mapped to DTO fields are not sent as variables
+     */
+    static EncodingPlan of(EntityMetadata<?> metadata, Predicate<String> variables, VariableEncoderRegistry registry) {
+        List<String> names = new ArrayList<>();
+        List<FieldAccessor> accessors = new ArrayList<>();
+        List<VariableEncoder<Object>> encoders = new ArrayList<>();
+        metadata.getAccessors().forEach((varName, accessor) -> {
+            if (variables.test(varName)) {
+                names.add(varName);
+                accessors.add(accessor);
+                encoders.add(registry.forType(accessor.getType()));
+            }
+        });
+        return new EncodingPlan(names, accessors, encoders);
+    }
+
+    Map<String, VariableValueDto> toVariables(Object entity) {
+        Map<String, VariableValueDto> variables = new HashMap<>((int) (names.length / 0.75f) + 1);
+        for (int i = 0; i < names.length; i++) {
+            variables.put(names[i], encoders[i].encode(accessors[i].get(entity)));
+        }
+        return variables;
+    }
+}
@@ -20,21 +20,21 @@ import com.ae.camunda.dispatcher.api.annotation.CamundaTask;
 import com.ae.camunda.dispatcher.api.annotation.task.Id;
 import com.ae.camunda.dispatcher.api.annotation.task.WorkerId;
 import com.ae.camunda.dispatcher.api.manager.ExternalTaskManager;
+import com.ae.camunda.dispatcher.api.mapper.GeneratedTaskMapper;
 import com.ae.camunda.dispatcher.model.EntityMetadata;
 import com.ae.camunda.dispatcher.runtime.manager.util.FieldUtils;
+import com.ae.camunda.dispatcher.util.FieldAccessor;
 import com.ae.camunda.dispatcher.util.JavaUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.tuple.Pair;
-import org.camunda.bpm.engine.rest.dto.VariableValueDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
-import org.camunda.bpm.engine.variable.Variables;
-import org.camunda.bpm.engine.variable.type.SerializableValueType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ReflectionUtils;
@@ -44,7 +44,9 @@ import javax.annotation.PostConstruct;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class ExternalTaskManagerImpl implements ExternalTaskManager {
@@ -56,16 +58,47 @@ public class ExternalTaskManagerImpl implements ExternalTaskManager {
 
     private final Map<String, EntityMetadata<?>> externalTaskDefinitions = new HashMap<>();
 
-    private ObjectMapper objectMapper;
+    /**
+     * Mappers generated by camunda-task-dispatcher-annotation-processor, preferred to reflection.
+     * Only mappers of commands from {@link #packages} are used
+     */
+    private final Map<String, GeneratedTaskMapper<?>> generatedMappers = new HashMap<>();
+
+    private final Map<String, ConversionPlan> conversionPlans = new HashMap<>();
+
+    private final Map<String, EncodingPlan> encodingPlans = new HashMap<>();
+
+    @Autowired(required = false)
+    private VariableConverterRegistry variableConverterRegistry;
+
+    @Autowired(required = false)
+    private VariableEncoderRegistry variableEncoderRegistry;
+
+    private VariableConverterImpl variableConverter;
 
     private Map<String, Class<? extends Annotation>> externalTaskFieldAnnotations;
 
     @PostConstruct
     public void init() {
         this.externalTaskFieldAnnotations = JavaUtils.loadAnnotations(Id.class.getPackage().getName());
-        this.objectMapper = new ObjectMapper();
+        this.variableConverter = new VariableConverterImpl(
+                variableConverterRegistry == null ? new VariableConverterRegistry() : variableConverterRegistry
+                , variableEncoderRegistry == null ? new VariableEncoderRegistry() : variableEncoderRegistry);
 
         LOG.info("Analyze packages: {}", packages);
+        JavaUtils.forEachService(GeneratedTaskMapper.class, mapper -> {
+            if (!JavaUtils.isInPackages(mapper.getCommandClass(), packages)) {
+                LOG.debug("Generated mapper of task [{}] is skipped, class [{}] is out of packages"
+                        , mapper.getTaskName(), mapper.getCommandClass().getName());
+                return;
+            }
+            GeneratedTaskMapper<?> other = generatedMappers.putIfAbsent(mapper.getTaskName(), mapper);
+            if (other != null) {
+                throw duplicateTask(mapper.getTaskName(), other.getCommandClass(), mapper.getCommandClass());
+            }
+        });
+        LOG.info("Generated mappers of tasks: {}", generatedMappers.keySet());
+
         JavaUtils.forEachClass(packages, aClass -> {
             LOG.trace("Analyze class: {}", aClass.getName());
 
@@ -77,69 +110,73 @@ public class ExternalTaskManagerImpl implements ExternalTaskManager {
                 }
 
                 String taskName = Strings.isNullOrEmpty(annotation.value()) ? aClass.getName() : annotation.value();
+                GeneratedTaskMapper<?> mapper = generatedMappers.get(taskName);
+                if (mapper != null) {
+                    if (mapper.getCommandClass() != aClass) {
+                        throw duplicateTask(taskName, mapper.getCommandClass(), aClass);
+                    }
+                    return;
+                }
+                EntityMetadata<?> other = externalTaskDefinitions.get(taskName);
+                if (other != null && other.getClazz() != aClass) {
+                    throw duplicateTask(taskName, other.getClazz(), aClass);
+                }
 
                 Map<String, Field> taskVars = new HashMap<>();
                 ReflectionUtils.doWithFields(aClass, field -> FieldUtils.mapFieldToVar(field, taskVars, externalTaskFieldAnnotations));
 
-                externalTaskDefinitions.put(taskName, new EntityMetadata<>(taskName, aClass, taskVars));
+                EntityMetadata<?> externalTask = new EntityMetadata<>(taskName, aClass, taskVars);
+                externalTaskDefinitions.put(taskName, externalTask);
+                conversionPlans.put(taskName, ConversionPlan.of(externalTask));
+                encodingPlans.put(taskName, EncodingPlan.of(externalTask
+                        , varName -> !externalTaskFieldAnnotations.containsKey(varName)
+                        , variableConverter.getEncoderRegistry()));
             }
         });
     }
 
+    private static IllegalStateException duplicateTask(String taskName, Class<?> aClass, Class<?> otherClass) {
+        return new IllegalStateException("Task '" + taskName + "' is declared by both '" + aClass.getName()
+                + "' and '" + otherClass.getName() + "'");
+    }
+
     @Override
     public List<FetchExternalTasksDto.FetchExternalTaskTopicDto> getExternalTaskTopics(long lockTimeout) {
-        return externalTaskDefinitions.values()
-                .stream()
-                .map(externalTask -> {
-                    FetchExternalTasksDto.FetchExternalTaskTopicDto topicDto = new FetchExternalTasksDto.FetchExternalTaskTopicDto();
-                    topicDto.setLockDuration(lockTimeout);
-                    topicDto.setTopicName(externalTask.getName());
-                    topicDto.setVariables(new ArrayList<>(externalTask.getFields().keySet()));
-                    return topicDto;
-                })
+        return Stream.concat(
+                        externalTaskDefinitions.values()
+                                .stream()
+                                .map(externalTask -> toTopic(externalTask.getName(), externalTask.getFields().keySet(), lockTimeout))
+                        , generatedMappers.values()
+                                .stream()
+                                .map(mapper -> toTopic(mapper.getTaskName(), mapper.getVariableNames(), lockTimeout))
+                )
                 .collect(Collectors.toList());
     }
 
+    private static FetchExternalTasksDto.FetchExternalTaskTopicDto toTopic(String taskName, Collection<String> variables, long lockTimeout) {
+        FetchExternalTasksDto.FetchExternalTaskTopicDto topicDto = new FetchExternalTasksDto.FetchExternalTaskTopicDto();
+        topicDto.setLockDuration(lockTimeout);
+        topicDto.setTopicName(taskName);
+        topicDto.setVariables(new ArrayList<>(variables));
+        return topicDto;
+    }
+
     @Override
     public Object toCommand(LockedExternalTaskDto task) {
-        EntityMetadata<?> externalTask = getExternalTask(task.getTopicName());
-
-        Object command = JavaUtils.callWithoutCheckedException(() -> externalTask.getClazz().newInstance());
-
-        externalTask.getFields().forEach((varName, field) -> {
-            if (task.getVariables() != null) {
-                task.getVariables().computeIfPresent(varName, (name, value) -> {
-                    final Object varValue;
-                    final String serializationDataFormat = (String) value.getValueInfo().get(SerializableValueType.VALUE_INFO_SERIALIZATION_DATA_FORMAT);
-                    if (Variables.SerializationDataFormats.JAVA.getName().equalsIgnoreCase(serializationDataFormat)) {
-                        varValue = JavaUtils.deserialize((String) value.getValue());
-                    } else {
-                        if (value.getValue() == null) {
-                            varValue = null;
-                        } else if (field.getType().isAssignableFrom(value.getValue().getClass())) {
-                            varValue = value.getValue();
-                        } else {
-                            varValue = JavaUtils.callWithoutCheckedException(() -> objectMapper.readValue("\"" + value.getValue() + "\"", field.getType()));
-                        }
-                    }
-
-                    JavaUtils.setFieldWithoutCheckedException(field, command, varValue);
-                    return value;
-                });
-            }
-
-            Field taskField = ReflectionUtils.findField(task.getClass(), varName);
-            if (taskField != null) {
-                ReflectionUtils.makeAccessible(taskField);
-                JavaUtils.setFieldWithoutCheckedException(field, command, () -> taskField.get(task));
-            }
-        });
+        GeneratedTaskMapper<?> mapper = generatedMappers.get(task.getTopicName());
+        if (mapper != null) {
+            return mapper.toCommand(task, variableConverter);
+        }
 
-        return command;
+        return getConversionPlan(task.getTopicName()).toCommand(task, variableConverter);
     }
 
     @Override
     public Class<?> getCommandClass(String taskName) {
+        GeneratedTaskMapper<?> mapper = generatedMappers.get(taskName);
+        if (mapper != null) {
+            return mapper.getCommandClass();
+        }
         return getExternalTask(taskName).getClazz();
     }
 
@@ -150,27 +187,20 @@ public class ExternalTaskManagerImpl implements ExternalTaskManager {
             return null;
         }
 
+        GeneratedTaskMapper<?> mapper = generatedMappers.get(taskName);
+        if (mapper != null) {
+            return map(mapper, command, (typedMapper, typedCommand) -> typedMapper.toCompleteTask(typedCommand, variableConverter));
+        }
+
         EntityMetadata<?> externalTask = getExternalTask(taskName);
 
         CompleteExternalTaskDto completeTask = new CompleteExternalTaskDto();
         FieldUtils.mapVarsToFields(command, externalTask, CompleteExternalTaskDto.class, completeTask);
 
-        completeTask.setVariables(
-                externalTask.getFields()
-                        .entrySet()
-                        .stream()
-                        .filter(entry -> !externalTaskFieldAnnotations.containsKey(entry.getKey()))
-                        .collect(Collectors.toMap(
-                                Map.Entry::getKey
-                                , entry -> {
-                                    Object value = JavaUtils.getFieldWithoutCheckedException(entry.getValue(), command);
-                                    return VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(value));
-                                }
-                        ))
-        );
+        completeTask.setVariables(encodingPlans.get(taskName).toVariables(command));
 
         return Pair.of(
-                String.valueOf(JavaUtils.getFieldWithoutCheckedException(getIdField(externalTask), command))
+                String.valueOf(getIdAccessor(externalTask).get(command))
                 , completeTask
         );
     }
@@ -182,17 +212,46 @@ public class ExternalTaskManagerImpl implements ExternalTaskManager {
             return null;
         }
 
+        GeneratedTaskMapper<?> mapper = generatedMappers.get(taskName);
+        if (mapper != null) {
+            return map(mapper, command, GeneratedTaskMapper::toFailTask);
+        }
+
         EntityMetadata<?> externalTask = getExternalTask(taskName);
 
         ExternalTaskFailureDto failureTask = new ExternalTaskFailureDto();
         FieldUtils.mapVarsToFields(command, externalTask, ExternalTaskFailureDto.class, failureTask);
 
         return Pair.of(
-                String.valueOf(JavaUtils.getFieldWithoutCheckedException(getIdField(externalTask), command))
+                String.valueOf(getIdAccessor(externalTask).get(command))
                 , failureTask
         );
     }
 
+    @Override
+    public Pair<String, ExtendLockOnExternalTaskDto> toExtendLockTask(String taskName, Object command, long newDuration) {
+        if (Strings.isNullOrEmpty(taskName)
+                || command == null) {
+            return null;
+        }
+
+        GeneratedTaskMapper<?> mapper = generatedMappers.get(taskName);
+        if (mapper != null) {
+            return map(mapper, command, (typedMapper, typedCommand) -> typedMapper.toExtendLockTask(typedCommand, newDuration));
+        }
+
+        EntityMetadata<?> externalTask = getExternalTask(taskName);
+
+        ExtendLockOnExternalTaskDto extendLockTask = new ExtendLockOnExternalTaskDto();
+        FieldUtils.mapVarsToFields(command, externalTask, ExtendLockOnExternalTaskDto.class, extendLockTask);
+        extendLockTask.setNewDuration(newDuration);
+
+        return Pair.of(
+                String.valueOf(getIdAccessor(externalTask).get(command))
+                , extendLockTask
+        );
+    }
+
     public Map<String, EntityMetadata<?>> getExternalTaskDefinitions() {
         return Collections.unmodifiableMap(externalTaskDefinitions);
     }
@@ -201,12 +260,21 @@ public class ExternalTaskManagerImpl implements ExternalTaskManager {
         return Collections.unmodifiableMap(externalTaskFieldAnnotations);
     }
 
-    private static Field getIdField(EntityMetadata<?> externalTask) {
-        Field idField = externalTask.getFields().get(StringUtils.uncapitalize(Id.class.getSimpleName()));
-        if (idField == null) {
+    public Map<String, GeneratedTaskMapper<?>> getGeneratedMappers() {
+        return Collections.unmodifiableMap(generatedMappers);
+    }
+
+    private static <T, R> Pair<String, R> map(GeneratedTaskMapper<T> mapper, Object command, BiFunction<GeneratedTaskMapper<T>, T, R> mapping) {
+        T typedCommand = mapper.getCommandClass().cast(command);
+        return Pair.of(mapper.getId(typedCommand), mapping.apply(mapper, typedCommand));
+    }
+
+    private static FieldAccessor getIdAccessor(EntityMetadata<?> externalTask) {
+        FieldAccessor idAccessor = externalTask.getAccessor(StringUtils.uncapitalize(Id.class.getSimpleName()));
+        if (idAccessor == null) {
             throw new NoSuchFieldError("Command '" + externalTask.getName() + "' has no field annotated with '" + Id.class.getName() + "'");
         }
-        return idField;
+        return idAccessor;
     }
 
     private EntityMetadata<?> getExternalTask(String taskName) {
@@ -217,6 +285,14 @@ public class ExternalTaskManagerImpl implements ExternalTaskManager {
         return externalTaskDefinitions.get(taskName);
     }
 
+    private ConversionPlan getConversionPlan(String taskName) {
+        if (!conversionPlans.containsKey(taskName)) {
+            throw new NoSuchElementException("No task with name '" + taskName + "' found");
+        }
+
+        return conversionPlans.get(taskName);
+    }
+
     private boolean anyFieldContainsAnnotation(Class<?> aClass, Class<? extends Annotation> annotation) {
         boolean haveAnnotation[] = new boolean[]{false};
         ReflectionUtils.doWithFields(aClass, field -> haveAnnotation[0] = true, f -> f.getAnnotation(annotation) != null);
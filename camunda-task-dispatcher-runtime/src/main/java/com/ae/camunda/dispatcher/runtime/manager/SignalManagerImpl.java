@@ -19,15 +19,16 @@ package com.ae.camunda.dispatcher.runtime.manager;
 import com.ae.camunda.dispatcher.api.annotation.CamundaSignal;
 import com.ae.camunda.dispatcher.api.annotation.signal.BusinessKey;
 import com.ae.camunda.dispatcher.api.manager.SignalManager;
+import com.ae.camunda.dispatcher.api.mapper.GeneratedSignalMapper;
 import com.ae.camunda.dispatcher.model.EntityMetadata;
 import com.ae.camunda.dispatcher.runtime.manager.util.FieldUtils;
 import com.ae.camunda.dispatcher.util.JavaUtils;
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.tuple.Pair;
 import org.camunda.bpm.engine.rest.dto.SignalDto;
-import org.camunda.bpm.engine.rest.dto.VariableValueDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ReflectionUtils;
@@ -39,7 +40,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
 
 @Component
 public class SignalManagerImpl implements SignalManager {
@@ -50,12 +50,43 @@ public class SignalManagerImpl implements SignalManager {
 
     private final Map<String, EntityMetadata<?>> signalDefinitions = new HashMap<>();
 
+    private final Map<String, CamundaSignal.Delivery> signalDeliveries = new HashMap<>();
+
+    /**
+     * Mappers generated by camunda-task-dispatcher-annotation-processor, preferred to reflection.
+     * Only mappers of signals from {@link #packages} are used
+     */
+    private final Map<String, GeneratedSignalMapper<?>> generatedMappers = new HashMap<>();
+
+    private final Map<String, EncodingPlan> encodingPlans = new HashMap<>();
+
+    @Autowired(required = false)
+    private VariableEncoderRegistry variableEncoderRegistry;
+
+    private VariableConverterImpl variableConverter;
+
     @Value("#{'${camunda.dispatcher.signal.package-name}'.split(',')}")
     private List<String> packages;
 
     @PostConstruct
     public void init() {
+        this.variableConverter = new VariableConverterImpl(new VariableConverterRegistry()
+                , variableEncoderRegistry == null ? new VariableEncoderRegistry() : variableEncoderRegistry);
+
         LOG.info("Analyze packages: {}", packages);
+        JavaUtils.forEachService(GeneratedSignalMapper.class, mapper -> {
+            if (!JavaUtils.isInPackages(mapper.getSignalClass(), packages)) {
+                LOG.debug("Generated mapper of signal [{}] is skipped, class [{}] is out of packages"
+                        , mapper.getSignalName(), mapper.getSignalClass().getName());
+                return;
+            }
+            GeneratedSignalMapper<?> other = generatedMappers.putIfAbsent(mapper.getSignalName(), mapper);
+            if (other != null) {
+                throw duplicateSignal(mapper.getSignalName(), other.getSignalClass(), mapper.getSignalClass());
+            }
+        });
+        LOG.info("Generated mappers of signals: {}", generatedMappers.keySet());
+
         JavaUtils.forEachClass(packages, aClass -> {
             LOG.trace("Analyze class: {}", aClass.getName());
 
@@ -63,6 +94,17 @@ public class SignalManagerImpl implements SignalManager {
             if (annotation != null) {
 
                 String signalName = Strings.isNullOrEmpty(annotation.value()) ? aClass.getName() : annotation.value();
+                GeneratedSignalMapper<?> mapper = generatedMappers.get(signalName);
+                if (mapper != null) {
+                    if (mapper.getSignalClass() != aClass) {
+                        throw duplicateSignal(signalName, mapper.getSignalClass(), aClass);
+                    }
+                    return;
+                }
+                EntityMetadata<?> other = signalDefinitions.get(signalName);
+                if (other != null && other.getClazz() != aClass) {
+                    throw duplicateSignal(signalName, other.getClazz(), aClass);
+                }
 
                 Map<String, Field> signalVars = new HashMap<>();
                 ReflectionUtils.doWithFields(aClass, field -> FieldUtils.mapFieldToVar(field, signalVars));
@@ -72,40 +114,60 @@ public class SignalManagerImpl implements SignalManager {
                     return;
                 }
 
-                signalDefinitions.put(signalName, new EntityMetadata<>(signalName, aClass, signalVars));
+                EntityMetadata<?> signalMetadata = new EntityMetadata<>(signalName, aClass, signalVars);
+                signalDefinitions.put(signalName, signalMetadata);
+                encodingPlans.put(signalName, EncodingPlan.of(signalMetadata, varName -> true
+                        , variableConverter.getEncoderRegistry()));
+                signalDeliveries.put(signalName, annotation.delivery());
             }
         });
     }
 
+    private static IllegalStateException duplicateSignal(String signalName, Class<?> aClass, Class<?> otherClass) {
+        return new IllegalStateException("Signal '" + signalName + "' is declared by both '" + aClass.getName()
+                + "' and '" + otherClass.getName() + "'");
+    }
+
     @Override
     public Class<?> getSignalClass(String signalName) {
+        GeneratedSignalMapper<?> mapper = generatedMappers.get(signalName);
+        if (mapper != null) {
+            return mapper.getSignalClass();
+        }
         return getSignalMetadata(signalName).getClazz();
     }
 
+    @Override
+    public CamundaSignal.Delivery getSignalDelivery(String signalName) {
+        GeneratedSignalMapper<?> mapper = generatedMappers.get(signalName);
+        if (mapper != null) {
+            return mapper.getDelivery();
+        }
+        getSignalMetadata(signalName);
+        return signalDeliveries.get(signalName);
+    }
+
     @Override
     public Pair<String, SignalDto> toSignal(String signalName, Object signal) {
+        GeneratedSignalMapper<?> mapper = generatedMappers.get(signalName);
+        if (mapper != null) {
+            SignalDto signalDto = toSignal(mapper, signal);
+            return Pair.of((String) signalDto.getVariables().get(BUSINESS_KEY).getValue(), signalDto);
+        }
 
-        EntityMetadata<?> signalMetadata = getSignalMetadata(signalName);
+        getSignalMetadata(signalName);
 
         SignalDto signalDto = new SignalDto();
         signalDto.setName(signalName);
-
-        signalDto.setVariables(
-                signalMetadata.getFields()
-                        .entrySet()
-                        .stream()
-                        .collect(Collectors.toMap(
-                                Map.Entry::getKey
-                                , entry -> {
-                                    Object value = JavaUtils.getFieldWithoutCheckedException(entry.getValue(), signal);
-                                    return VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(value));
-                                })
-                        )
-        );
+        signalDto.setVariables(encodingPlans.get(signalName).toVariables(signal));
 
         return Pair.of((String) signalDto.getVariables().get(BUSINESS_KEY).getValue(), signalDto);
     }
 
+    private <T> SignalDto toSignal(GeneratedSignalMapper<T> mapper, Object signal) {
+        return mapper.toSignal(mapper.getSignalClass().cast(signal), variableConverter);
+    }
+
     private EntityMetadata<?> getSignalMetadata(String signalName) {
         if (!signalDefinitions.containsKey(signalName)) {
             throw new NoSuchElementException("No signal with name '" + signalName + "' found");
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.manager;
+
+import com.ae.camunda.dispatcher.api.mapper.VariableConverter;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.type.SerializableValueType;
+
+/**
+ * Conversion of variables shared by reflection based mapping and generated mappers
+ */
+public class VariableConverterImpl implements VariableConverter {
+
+    private final VariableConverterRegistry registry;
+
+    private final VariableEncoderRegistry encoderRegistry;
+
+    public VariableConverterImpl() {
+        this(new VariableConverterRegistry());
+    }
+
+    public VariableConverterImpl(VariableConverterRegistry registry) {
+        this(registry, new VariableEncoderRegistry());
+    }
+
+    public VariableConverterImpl(VariableConverterRegistry registry, VariableEncoderRegistry encoderRegistry) {
+        this.registry = registry;
+        this.encoderRegistry = encoderRegistry;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V fromVariable(VariableValueDto value, Class<V> type) {
+        final String serializationDataFormat = value.getValueInfo() == null
+                ? null
+                : (String) value.getValueInfo().get(SerializableValueType.VALUE_INFO_SERIALIZATION_DATA_FORMAT);
+        if (Variables.SerializationDataFormats.JAVA.getName().equalsIgnoreCase(serializationDataFormat)) {
+            return JavaUtils.deserialize((String) value.getValue());
+        } else if (value.getValue() == null) {
+            return null;
+        } else if (type.isAssignableFrom(value.getValue().getClass())) {
+            return (V) value.getValue();
+        }
+        return (V) registry.convert(value.getValue(), type);
+    }
+
+    public VariableEncoderRegistry getEncoderRegistry() {
+        return encoderRegistry;
+    }
+
+    @Override
+    public VariableValueDto toVariable(Object value) {
+        return encoderRegistry.encode(value);
+    }
+}
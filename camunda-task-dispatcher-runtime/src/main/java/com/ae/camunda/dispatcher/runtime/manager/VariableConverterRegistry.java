@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.manager;
+
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Converts variable value to type of command field when value is of other type, e.g. {@code Long} variable
+ * to {@code Integer} field or ISO date string to {@code Date}.
+ * <p>
+ * Converter is resolved once per pair of value and field types: registered one first, then fast path for
+ * numbers, dates, enums, {@code UUID}, {@code BigDecimal} and {@code String}, then JSON. Value which fast path
+ * can't convert, e.g. empty string or number out of range, is given to JSON as well, so results and errors stay
+ * the same as when every value was parsed by {@link ObjectMapper}
+ */
+public class VariableConverterRegistry {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Pair<Class<?>, Class<?>>, Function<Object, ?>> registered = new ConcurrentHashMap<>();
+
+    private final Map<Pair<Class<?>, Class<?>>, Function<Object, ?>> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Registered converter is preferred to built-in ones, its exceptions aren't handled
+     */
+    @SuppressWarnings("unchecked")
+    public <S, T> void register(Class<S> sourceType, Class<T> targetType, Function<? super S, ? extends T> converter) {
+        registered.put(Pair.of(sourceType, ClassUtils.primitiveToWrapper(targetType)), value -> converter.apply((S) value));
+        resolved.clear();
+    }
+
+    public Object convert(Object value, Class<?> targetType) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> type = ClassUtils.primitiveToWrapper(targetType);
+        return resolved.computeIfAbsent(Pair.of(value.getClass(), type), this::resolve).apply(value);
+    }
+
+    private Function<Object, ?> resolve(Pair<Class<?>, Class<?>> types) {
+        Function<Object, ?> converter = registered.get(types);
+        if (converter != null) {
+            return converter;
+        }
+
+        Class<?> targetType = types.getRight();
+        Function<Object, ?> json = value -> fromJson(value, targetType);
+        Function<Object, ?> fastPath = getFastPath(types.getLeft(), targetType);
+        if (fastPath == null) {
+            return json;
+        }
+        return value -> {
+            try {
+                return fastPath.apply(value);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return json.apply(value);
+            }
+        };
+    }
+
+    private Object fromJson(Object value, Class<?> targetType) {
+        return JavaUtils.callWithoutCheckedException(() -> objectMapper.readValue("\"" + value + "\"", targetType));
+    }
+
+    /**
+     * @return {@code null} if only JSON converts the value
+     */
+    private static Function<Object, ?> getFastPath(Class<?> sourceType, Class<?> targetType) {
+        boolean integral = isIntegral(sourceType);
+        boolean text = sourceType == String.class;
+
+        if (targetType == String.class) {
+            return String::valueOf;
+        } else if (targetType == Long.class && (integral || text)) {
+            return VariableConverterRegistry::toLong;
+        } else if (targetType == Integer.class && (integral || text)) {
+            return value -> Math.toIntExact(toLong(value));
+        } else if (targetType == Short.class && (integral || text)) {
+            return value -> (short) checkRange(toLong(value), Short.MIN_VALUE, Short.MAX_VALUE);
+        } else if (targetType == Byte.class && (integral || text)) {
+            return value -> (byte) checkRange(toLong(value), Byte.MIN_VALUE, Byte.MAX_VALUE);
+        } else if (targetType == Double.class && (Number.class.isAssignableFrom(sourceType) || text)) {
+            return value -> Double.valueOf(value.toString());
+        } else if (targetType == Float.class && (Number.class.isAssignableFrom(sourceType) || text)) {
+            return value -> Float.valueOf(value.toString());
+        } else if (targetType == BigDecimal.class && (Number.class.isAssignableFrom(sourceType) || text)) {
+            return value -> new BigDecimal(value.toString());
+        } else if (targetType == BigInteger.class && (integral || text)) {
+            return value -> new BigInteger(value.toString());
+        } else if (targetType == Date.class && integral) {
+            return value -> new Date(toLong(value));
+        } else if (targetType == Date.class && text) {
+            return VariableConverterRegistry::toDate;
+        } else if (targetType == UUID.class && text) {
+            return value -> UUID.fromString((String) value);
+        } else if (targetType.isEnum() && text) {
+            Map<String, ?> constants = Arrays.stream(targetType.getEnumConstants())
+                    .collect(Collectors.toMap(constant -> ((Enum<?>) constant).name(), constant -> constant));
+            return value -> {
+                Object constant = constants.get(value);
+                if (constant == null) {
+                    throw new IllegalArgumentException("No constant " + value + " in " + targetType.getName());
+                }
+                return constant;
+            };
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == Integer.class || type == Long.class || type == Short.class || type == Byte.class
+                || type == BigInteger.class;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).longValueExact();
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong((String) value);
+    }
+
+    private static long checkRange(long value, long min, long max) {
+        if (value < min || value > max) {
+            throw new ArithmeticException("Value " + value + " is out of range");
+        }
+        return value;
+    }
+
+    private static Date toDate(Object value) {
+        try {
+            // тот же формат, что и у ObjectMapper, экземпляр не потокобезопасен
+            return new StdDateFormat().parse((String) value);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
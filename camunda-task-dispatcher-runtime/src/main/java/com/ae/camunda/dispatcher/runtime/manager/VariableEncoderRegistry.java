@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.manager;
+
+import com.ae.camunda.dispatcher.runtime.manager.util.FieldUtils;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.variable.type.ValueType;
+
+import java.lang.reflect.Modifier;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encoders of field values to variables, resolved once per class by {@link ClassValue}.
+ * <p>
+ * Values of primitive value types are written to {@link VariableValueDto} directly, with the same type name,
+ * value info and value as {@link VariableValueDto#fromTypedValue} gives for them. Other values, {@code null}
+ * included, go through {@link FieldUtils#toTypedValue(Object)} as before. Registered encoders, e.g. for JSON or
+ * Spin values of domain types, apply to the type and its subtypes and are preferred to built-in ones
+ */
+public class VariableEncoderRegistry {
+
+    private static final VariableEncoder<Object> TYPED_VALUE_ENCODER =
+            value -> VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(value));
+
+    private final Map<Class<?>, VariableEncoder<Object>> registered = new LinkedHashMap<>();
+
+    private volatile ClassValue<VariableEncoder<Object>> encoders = createEncoders();
+
+    @SuppressWarnings("unchecked")
+    public synchronized <T> void register(Class<T> type, VariableEncoder<? super T> encoder) {
+        registered.put(type, value -> ((VariableEncoder<Object>) encoder).encode(value));
+        // ClassValue не очищается, поэтому создаётся заново
+        encoders = createEncoders();
+    }
+
+    public VariableValueDto encode(Object value) {
+        return value == null ? TYPED_VALUE_ENCODER.encode(null) : encoders.get(value.getClass()).encode(value);
+    }
+
+    /**
+     * @return encoder of field of the declared type, it doesn't look up runtime class of value if the type
+     * has no subtypes. Encoder is taken from the registry on each call, so it follows later registrations
+     */
+    public VariableEncoder<Object> forType(Class<?> declaredType) {
+        if (declaredType.isPrimitive()) {
+            Class<?> wrapperType = ClassUtils.primitiveToWrapper(declaredType);
+            return value -> encoders.get(wrapperType).encode(value);
+        } else if (Modifier.isFinal(declaredType.getModifiers())) {
+            return value -> value == null ? TYPED_VALUE_ENCODER.encode(null) : encoders.get(declaredType).encode(value);
+        }
+        return this::encode;
+    }
+
+    private ClassValue<VariableEncoder<Object>> createEncoders() {
+        Map<Class<?>, VariableEncoder<Object>> snapshot = new LinkedHashMap<>(registered);
+        return new ClassValue<VariableEncoder<Object>>() {
+            @Override
+            protected VariableEncoder<Object> computeValue(Class<?> type) {
+                VariableEncoder<Object> encoder = snapshot.get(type);
+                if (encoder != null) {
+                    return encoder;
+                }
+                for (Map.Entry<Class<?>, VariableEncoder<Object>> entry : snapshot.entrySet()) {
+                    if (entry.getKey().isAssignableFrom(type)) {
+                        return entry.getValue();
+                    }
+                }
+                return getBuiltInEncoder(type);
+            }
+        };
+    }
+
+    /**
+     * Follows the order of {@link FieldUtils#toTypedValue(Object)}
+     */
+    private static VariableEncoder<Object> getBuiltInEncoder(Class<?> type) {
+        if (type == Integer.class) {
+            return primitive(ValueType.INTEGER);
+        } else if (type == String.class) {
+            return primitive(ValueType.STRING);
+        } else if (type == Boolean.class) {
+            return primitive(ValueType.BOOLEAN);
+        } else if (type == byte[].class) {
+            return primitive(ValueType.BYTES);
+        } else if (Date.class.isAssignableFrom(type)) {
+            return primitive(ValueType.DATE);
+        } else if (type == Long.class) {
+            return primitive(ValueType.LONG);
+        } else if (type == Short.class) {
+            return primitive(ValueType.SHORT);
+        } else if (type == Double.class) {
+            return primitive(ValueType.DOUBLE);
+        } else if (Number.class.isAssignableFrom(type)) {
+            return primitive(ValueType.NUMBER);
+        }
+        return TYPED_VALUE_ENCODER;
+    }
+
+    private static VariableEncoder<Object> primitive(ValueType valueType) {
+        String typeName = StringUtils.capitalize(valueType.getName());
+        return value -> {
+            VariableValueDto dto = new VariableValueDto();
+            dto.setType(typeName);
+            dto.setValueInfo(new HashMap<>());
+            dto.setValue(value);
+            return dto;
+        };
+    }
+
+}
@@ -19,7 +19,7 @@ package com.ae.camunda.dispatcher.runtime.manager.util;
 import com.ae.camunda.dispatcher.api.annotation.CamundaVar;
 import com.ae.camunda.dispatcher.api.manager.ExternalTaskManager;
 import com.ae.camunda.dispatcher.model.EntityMetadata;
-import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.ae.camunda.dispatcher.util.FieldAccessor;
 import org.camunda.bpm.engine.variable.Variables;
 import org.camunda.bpm.engine.variable.value.TypedValue;
 import org.springframework.util.ReflectionUtils;
@@ -27,10 +27,32 @@ import org.springframework.util.StringUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
 
 public abstract class FieldUtils {
 
+    private static final ClassValue<Map<String, FieldAccessor>> ACCESSORS = new ClassValue<Map<String, FieldAccessor>>() {
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+            Map<String, FieldAccessor> accessors = new HashMap<>();
+            // как и ReflectionUtils.findField, поле класса закрывает одноимённое поле родителя
+            ReflectionUtils.doWithFields(
+                    type
+                    , field -> accessors.putIfAbsent(field.getName(), FieldAccessor.of(field))
+                    , field -> !Modifier.isStatic(field.getModifiers())
+            );
+            return Collections.unmodifiableMap(accessors);
+        }
+    };
+
+    /**
+     * @return accessors of all instance fields of the class by field name, built once per class
+     */
+    public static Map<String, FieldAccessor> getAccessors(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
     public static TypedValue toTypedValue(Object value) {
         if (value instanceof Integer) {
             return Variables.integerValue((Integer) value);
@@ -55,17 +77,11 @@ public abstract class FieldUtils {
     }
 
     public static <T> void mapVarsToFields(Object entity, EntityMetadata<?> entityMetadata, Class<T> clazz, T result) {
-        ReflectionUtils.doWithFields(clazz, field -> {
-            if (!entityMetadata.getFields().containsKey(field.getName())) {
-                return;
+        getAccessors(clazz).forEach((name, accessor) -> {
+            FieldAccessor entityAccessor = entityMetadata.getAccessor(name);
+            if (entityAccessor != null) {
+                accessor.set(result, entityAccessor.get(entity));
             }
-
-            Field entityField = entityMetadata.getFields().get(field.getName());
-            JavaUtils.setFieldWithoutCheckedException(
-                    field
-                    , result
-                    , () -> JavaUtils.getFieldWithoutCheckedException(entityField, entity)
-            );
         });
     }
 
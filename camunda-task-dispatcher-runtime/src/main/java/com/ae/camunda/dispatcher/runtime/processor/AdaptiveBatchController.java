@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD batch size of fetchAndLock. Batch grows by {@code step} while responses come back full and fast
+ * and is multiplied by {@code decreaseFactor} on slow responses, errors or saturation of the pipeline.
+ * Decrease is applied at most once per {@code decreaseInterval}, so concurrent fetchers and repeated
+ * saturation checks don't collapse the batch to minimum at once.
+ */
+public class AdaptiveBatchController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBatchController.class);
+
+    private final int minBatchSize;
+
+    private final int maxBatchSize;
+
+    private final int step;
+
+    private final double decreaseFactor;
+
+    private final long slowThreshold;
+
+    private final long decreaseInterval;
+
+    private final boolean longPolling;
+
+    private final AtomicInteger batchSize;
+
+    private final AtomicLong decreasedAt = new AtomicLong();
+
+    /**
+     * @param initialBatchSize batch size to start with, clamped to bounds
+     * @param longPolling engine holds not full responses up to async response timeout, so their duration is ignored
+     */
+    public AdaptiveBatchController(int initialBatchSize, int minBatchSize, int maxBatchSize, int step, double decreaseFactor
+            , long slowThreshold, long decreaseInterval, boolean longPolling) {
+        if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("Wrong batch size bounds [" + minBatchSize + ".." + maxBatchSize + "]");
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("Decrease factor [" + decreaseFactor + "] must be in (0, 1)");
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.step = step;
+        this.decreaseFactor = decreaseFactor;
+        this.slowThreshold = slowThreshold;
+        this.decreaseInterval = decreaseInterval;
+        this.longPolling = longPolling;
+        this.batchSize = new AtomicInteger(Math.max(minBatchSize, Math.min(maxBatchSize, initialBatchSize)));
+    }
+
+    public int getBatchSize() {
+        return batchSize.get();
+    }
+
+    /**
+     * @param requested maxTasks of the request
+     * @param received  count of fetched tasks
+     * @param duration  duration of the request in millis
+     */
+    public void onResponse(int requested, int received, long duration) {
+        boolean full = received >= requested;
+        boolean slow = duration > slowThreshold && (full || !longPolling);
+        if (slow) {
+            decrease("slow response [" + duration + "ms]");
+        } else if (full && requested >= batchSize.get()) {
+            // растим только если запрос не был урезан другими ограничениями
+            int size = batchSize.updateAndGet(current -> Math.min(maxBatchSize, current + step));
+            LOG.trace("Batch size is increased to [{}]", size);
+        }
+    }
+
+    public void onError() {
+        decrease("fetch error");
+    }
+
+    public void onSaturation() {
+        decrease("pipeline saturation");
+    }
+
+    private void decrease(String reason) {
+        long now = System.currentTimeMillis();
+        long last = decreasedAt.get();
+        if (now - last < decreaseInterval || !decreasedAt.compareAndSet(last, now)) {
+            return;
+        }
+        int size = batchSize.updateAndGet(current -> Math.max(minBatchSize, (int) (current * decreaseFactor)));
+        LOG.debug("Batch size is decreased to [{}] cause {}", size, reason);
+    }
+}
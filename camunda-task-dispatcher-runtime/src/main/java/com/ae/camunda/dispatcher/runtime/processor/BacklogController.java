@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.processor;
+
+import com.ae.camunda.dispatcher.api.sender.BacklogProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits fetching by backlog of sent tasks. Topic is paused when its backlog reaches high watermark
+ * and resumed when backlog drops to low watermark. In between batch size shrinks linearly.
+ */
+public class BacklogController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BacklogController.class);
+
+    private final BacklogProbe probe;
+
+    private final long highWatermark;
+
+    private final long lowWatermark;
+
+    private final long refreshInterval;
+
+    private final Map<String, TopicBacklog> topics = new ConcurrentHashMap<>();
+
+    public BacklogController(BacklogProbe probe, long highWatermark, long lowWatermark, long refreshInterval) {
+        if (lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Low watermark [" + lowWatermark + "] must be less than high watermark [" + highWatermark + "]");
+        }
+        this.probe = probe;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Requests backlog of topics which were not refreshed during refresh interval
+     */
+    public void refresh(Collection<String> topicNames) {
+        topicNames.forEach(this::refresh);
+    }
+
+    public boolean isPaused(String topicName) {
+        TopicBacklog backlog = topics.get(topicName);
+        return backlog != null && backlog.paused;
+    }
+
+    /**
+     * @return batch size reduced according to the most loaded topic, at least one task
+     */
+    public int limitBatch(Collection<String> topicNames, int batchSize) {
+        double ratio = 1;
+        for (String topicName : topicNames) {
+            ratio = Math.min(ratio, getBatchRatio(topicName));
+        }
+        return Math.max(1, (int) (batchSize * ratio));
+    }
+
+    public long getBacklog(String topicName) {
+        TopicBacklog backlog = topics.get(topicName);
+        return backlog == null ? BacklogProbe.UNKNOWN : backlog.backlog;
+    }
+
+    private double getBatchRatio(String topicName) {
+        TopicBacklog backlog = topics.get(topicName);
+        if (backlog == null || backlog.backlog <= lowWatermark) {
+            return 1;
+        }
+        if (backlog.paused || backlog.backlog >= highWatermark) {
+            return 0;
+        }
+        return (double) (highWatermark - backlog.backlog) / (highWatermark - lowWatermark);
+    }
+
+    private void refresh(String topicName) {
+        TopicBacklog backlog = topics.computeIfAbsent(topicName, name -> new TopicBacklog());
+
+        long now = System.currentTimeMillis();
+        long refreshedAt = backlog.refreshedAt.get();
+        // only one fetcher asks the probe, others use previous value
+        if (now - refreshedAt < refreshInterval
+                || !backlog.refreshedAt.compareAndSet(refreshedAt, now)) {
+            return;
+        }
+
+        long value;
+        try {
+            value = probe.getBacklog(topicName);
+        } catch (RuntimeException e) {
+            LOG.warn("Can't get backlog of topic [{}], cause: {}", topicName, e.getMessage());
+            value = BacklogProbe.UNKNOWN;
+        }
+        backlog.backlog = value;
+
+        if (value == BacklogProbe.UNKNOWN) {
+            // don't stop dispatching when backlog can't be measured
+            if (backlog.paused) {
+                LOG.warn("Backlog of topic [{}] is unknown, resuming fetching", topicName);
+                backlog.paused = false;
+            }
+        } else if (!backlog.paused && value >= highWatermark) {
+            LOG.warn("Backlog of topic [{}] is [{}], pausing fetching until it drops to [{}]", topicName, value, lowWatermark);
+            backlog.paused = true;
+        } else if (backlog.paused && value <= lowWatermark) {
+            LOG.info("Backlog of topic [{}] is [{}], resuming fetching", topicName, value);
+            backlog.paused = false;
+        }
+    }
+
+    private static class TopicBacklog {
+
+        private final AtomicLong refreshedAt = new AtomicLong();
+
+        private volatile long backlog = BacklogProbe.UNKNOWN;
+
+        private volatile boolean paused;
+    }
+}
@@ -16,21 +16,29 @@
 
 package com.ae.camunda.dispatcher.runtime.processor;
 
+import com.ae.camunda.dispatcher.api.processor.TopicActivityListener;
+import com.ae.camunda.dispatcher.api.sender.BacklogProbe;
 import com.ae.camunda.dispatcher.api.sender.ExternalTaskSender;
+import com.ae.camunda.dispatcher.api.service.EngineAvailabilityEvent;
 import com.ae.camunda.dispatcher.api.service.ExternalTaskRestService;
 import com.ae.camunda.dispatcher.api.manager.ExternalTaskManager;
 import com.ae.camunda.dispatcher.exception.CamundaRestException;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
-import com.ae.camunda.dispatcher.util.JavaUtils;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.ae.camunda.dispatcher.util.RetryScheduler;
+import com.ae.camunda.dispatcher.util.ThreadUtils;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.CollectionUtils;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -39,12 +47,23 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Component
-public class ExternalTaskProcessor implements Runnable {
+@ManagedResource
+public class ExternalTaskProcessor implements Runnable, TopicActivityListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(ExternalTaskProcessor.class);
 
+    /**
+     * Max value of {@code asyncResponseTimeout} accepted by Camunda engine
+     */
+    private static final long MAX_ASYNC_RESPONSE_TIMEOUT = 1800000;
+
     @Autowired
     private ExternalTaskRestService externalTaskService;
 
@@ -54,6 +73,12 @@ public class ExternalTaskProcessor implements Runnable {
     @Autowired
     private ExternalTaskSender taskSender;
 
+    @Autowired(required = false)
+    private BacklogProbe backlogProbe;
+
+    @Autowired(required = false)
+    private Environment environment;
+
     @Value("${camunda.dispatcher.runtime.external-task.batch:100}")
     private int taskBatchSize = 100;
 
@@ -66,26 +91,167 @@ public class ExternalTaskProcessor implements Runnable {
     @Value("${camunda.dispatcher.runtime.external-task.empty-wait:5000}")
     private long emptyWait = 5000;
 
+    /**
+     * Engine plugin notifies about new tasks, so topics without tasks are polled rarely, just in case notification is lost
+     */
+    @Value("${camunda.dispatcher.runtime.external-task.topic-activity.enabled:false}")
+    private boolean topicActivity = false;
+
+    @Value("${camunda.dispatcher.runtime.external-task.topic-activity.empty-wait:60000}")
+    private long topicActivityEmptyWait = 60000;
+
+    /**
+     * Long polling timeout passed to the engine as {@code asyncResponseTimeout}, {@code 0} disables long polling
+     */
+    @Value("${camunda.dispatcher.runtime.external-task.async-response-timeout:0}")
+    private long asyncResponseTimeout = 0;
+
     @Value("${camunda.dispatcher.runtime.external-task.lock-timeout:86400000}")
     private long lockTimeout = 86400000;
 
+    /**
+     * Initial delay of failure reporting retry, it doubles with each attempt
+     */
     @Value("${camunda.dispatcher.runtime.external-task.consume-wait:5000}")
     private long consumeWait = 5000;
 
     @Value("${camunda.dispatcher.runtime.external-task.consume-retry:10}")
     private int consumeRetry = 10;
 
+    @Value("${camunda.dispatcher.runtime.external-task.retry.max-delay:60000}")
+    private long retryMaxDelay = 60000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.retry.queue-size:1000}")
+    private int retryQueueSize = 1000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.retry.threads:1}")
+    private int retryThreads = 1;
+
+    @Value("${camunda.dispatcher.runtime.external-task.convert-workers:2}")
+    private int convertWorkers = 2;
+
+    @Value("${camunda.dispatcher.runtime.external-task.convert-queue-size:200}")
+    private int convertQueueSize = 200;
+
+    @Value("${camunda.dispatcher.runtime.external-task.send-workers:2}")
+    private int sendWorkers = 2;
+
+    @Value("${camunda.dispatcher.runtime.external-task.send-queue-size:200}")
+    private int sendQueueSize = 200;
+
+    /**
+     * Wait between fetches while downstream stages are full
+     */
+    @Value("${camunda.dispatcher.runtime.external-task.backpressure-wait:100}")
+    private long backpressureWait = 100;
+
+    @Value("${camunda.dispatcher.runtime.external-task.shutdown-timeout:30000}")
+    private long shutdownTimeout = 30000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.backlog.high-watermark:10000}")
+    private long backlogHighWatermark = 10000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.backlog.low-watermark:1000}")
+    private long backlogLowWatermark = 1000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.backlog.refresh-interval:1000}")
+    private long backlogRefreshInterval = 1000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.enabled:false}")
+    private boolean adaptiveBatch = false;
+
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.min:10}")
+    private int adaptiveBatchMin = 10;
+
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.max:1000}")
+    private int adaptiveBatchMax = 1000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.step:10}")
+    private int adaptiveBatchStep = 10;
+
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.decrease-factor:0.5}")
+    private double adaptiveBatchDecreaseFactor = 0.5;
+
+    /**
+     * fetchAndLock taking longer is treated as engine overload
+     */
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.slow-threshold:2000}")
+    private long adaptiveBatchSlowThreshold = 2000;
+
+    @Value("${camunda.dispatcher.runtime.external-task.adaptive-batch.decrease-interval:1000}")
+    private long adaptiveBatchDecreaseInterval = 1000;
+
+    /**
+     * Run fetch, convert and send workers on virtual threads, requires Java 21+
+     */
+    @Value("${camunda.dispatcher.runtime.virtual-threads:false}")
+    private boolean virtualThreads = false;
+
     private ExecutorService threadPool;
 
+    private AdaptiveBatchController batchController;
+
+    private BacklogController backlogController;
+
+    private RetryScheduler retryScheduler;
+
+    private PipelineStage<LockedExternalTaskDto> convertStage;
+
+    private PipelineStage<Pair<LockedExternalTaskDto, Object>> sendStage;
+
     private List<FetchExternalTasksDto.FetchExternalTaskTopicDto> topics;
 
+    private TopicScheduler topicScheduler;
+
     private volatile boolean paused;
 
+    /**
+     * Engine calls are cut off by circuit breaker
+     */
+    private volatile boolean engineUnavailable;
+
+    /**
+     * Lock instead of monitor, so waiting virtual thread doesn't pin its carrier
+     */
+    private final ReentrantLock wakeUpLock = new ReentrantLock();
+
+    private final Condition wakeUpCondition = wakeUpLock.newCondition();
+
+    private boolean wokenUp;
+
     @PostConstruct
     public void init() throws IOException {
         initTopics();
 
-        threadPool = Executors.newFixedThreadPool(concurrentWorkers, new ThreadFactoryBuilder().setNameFormat(workerId + "-%d").build());
+        if (isLongPolling()) {
+            if (asyncResponseTimeout > MAX_ASYNC_RESPONSE_TIMEOUT) {
+                LOG.warn("Async response timeout [{}ms] exceeds engine limit, using [{}ms]", asyncResponseTimeout, MAX_ASYNC_RESPONSE_TIMEOUT);
+                asyncResponseTimeout = MAX_ASYNC_RESPONSE_TIMEOUT;
+            }
+            LOG.info("Long polling is enabled with async response timeout [{}ms]", asyncResponseTimeout);
+        }
+
+        if (adaptiveBatch) {
+            batchController = new AdaptiveBatchController(taskBatchSize, adaptiveBatchMin, adaptiveBatchMax, adaptiveBatchStep
+                    , adaptiveBatchDecreaseFactor, adaptiveBatchSlowThreshold, adaptiveBatchDecreaseInterval, isLongPolling());
+            LOG.info("Adaptive batch size is enabled in bounds [{}..{}]", adaptiveBatchMin, adaptiveBatchMax);
+        }
+
+        if (backlogProbe != null) {
+            backlogController = new BacklogController(backlogProbe, backlogHighWatermark, backlogLowWatermark, backlogRefreshInterval);
+            LOG.info("Backlog control is enabled with watermarks [{}..{}]", backlogLowWatermark, backlogHighWatermark);
+        }
+
+        retryScheduler = new RetryScheduler(workerId + "-retry", retryThreads, retryQueueSize, consumeRetry
+                , consumeWait, retryMaxDelay, CamundaRestException::isRetryable);
+
+        sendStage = new PipelineStage<>("send", sendWorkers, sendQueueSize, this::send);
+        sendStage.start(ThreadUtils.createThreadFactory(workerId + "-send-", virtualThreads));
+
+        convertStage = new PipelineStage<>("convert", convertWorkers, convertQueueSize, this::convert);
+        convertStage.start(ThreadUtils.createThreadFactory(workerId + "-convert-", virtualThreads));
+
+        threadPool = Executors.newFixedThreadPool(concurrentWorkers, ThreadUtils.createThreadFactory(workerId + "-", virtualThreads));
         for(int i = 0; i < concurrentWorkers; ++i) {
             threadPool.submit(this);
         }
@@ -99,6 +265,12 @@ public class ExternalTaskProcessor implements Runnable {
             LOG.info("Loaded [{}] Camunda task(-s)", topics.size());
             LOG.debug("Topics: {}", topics);
         }
+
+        List<TopicScheduler.TopicSettings> topicSettings = topics.stream()
+                .map(topic -> TopicScheduler.readSettings(topic, taskManager.getCommandClass(topic.getTopicName()), environment))
+                .collect(Collectors.toList());
+        LOG.debug("Topic settings: {}", topicSettings);
+        topicScheduler = new TopicScheduler(topicSettings);
     }
 
     @PreDestroy
@@ -106,6 +278,11 @@ public class ExternalTaskProcessor implements Runnable {
         LOG.info("Stopping external task processor threads");
         threadPool.shutdownNow();
         threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        // fetched tasks are already locked, so let them go through the pipeline
+        convertStage.stop(shutdownTimeout);
+        sendStage.stop(shutdownTimeout);
+        retryScheduler.shutdown(shutdownTimeout);
     }
 
     @Override
@@ -120,58 +297,232 @@ public class ExternalTaskProcessor implements Runnable {
     private void runUnsafe() {
         LOG.info("External task processor thread [{}] started", Thread.currentThread().getName());
         while (!Thread.currentThread().isInterrupted()) {
-            if (isPaused()) {
+            if (isPaused() || engineUnavailable) {
                 LOG.debug("External task processor is paused, let's wait for {}ms", emptyWait);
-                sleep();
+                sleep(emptyWait);
                 continue;
             }
 
-            // запрашиваем таски со всех топиков
-            List<LockedExternalTaskDto> tasks = null;
+            // место в очереди конвертации занимается до запроса, параллельные выборки не возьмут больше, чем поместится
+            int reserved = convertStage.reserve(getBatchSize());
+            if (reserved == 0 || sendStage.isSaturated()) {
+                convertStage.release(reserved);
+                LOG.debug("Pipeline is saturated, let's wait for {}ms", backpressureWait);
+                if (batchController != null) {
+                    batchController.onSaturation();
+                }
+                sleep(backpressureWait);
+                continue;
+            }
+
+            AtomicInteger reservation = new AtomicInteger(reserved);
             try {
-                FetchExternalTasksDto tasksDto = new FetchExternalTasksDto();
-                tasksDto.setMaxTasks(taskBatchSize);
-                tasksDto.setTopics(topics);
-                tasksDto.setWorkerId(workerId);
-                tasks = externalTaskService.fetchAndLock(tasksDto);
-            } catch (CamundaRestException cre){
-                LOG.warn("Error while fetching external tasks",cre);
-                // оставляем список пустой. пусть отваливается дальше
+                fetch(reservation);
+            } finally {
+                convertStage.release(reservation.get());
             }
+        }
+        LOG.info("External task processor thread [{}] stopped", Thread.currentThread().getName());
+    }
+
+    /**
+     * @param reservation places of convert stage reserved for the fetched tasks and not taken yet
+     */
+    private void fetch(AtomicInteger reservation) {
+        if (backlogController != null) {
+            backlogController.refresh(getTopicNames(topics));
+        }
+
+        TopicScheduler.FetchPlan plan = topicScheduler.next(
+                topicName -> backlogController == null || !backlogController.isPaused(topicName)
+        );
+        if (plan == null) {
+            convertStage.release(reservation.getAndSet(0));
+            long wait = topicScheduler.getWaitTime(backpressureWait);
+            LOG.debug("All topics are idle or blocked, let's wait for {}ms", wait);
+            sleep(wait);
+            return;
+        }
+
+        List<FetchExternalTasksDto.FetchExternalTaskTopicDto> fetchTopics = plan.getTopics();
+        int maxTasks = Math.min(reservation.get(), plan.getMaxTasks());
+        if (backlogController != null) {
+            maxTasks = backlogController.limitBatch(plan.getTopicNames(), maxTasks);
+        }
+        // лишние места нужны другим потокам выборки
+        convertStage.release(reservation.getAndSet(maxTasks) - maxTasks);
+
+        // запрашиваем таски со всех топиков, каждая уходит в конвертацию сразу после разбора
+        AtomicInteger fetched = new AtomicInteger();
+        // время ожидания места в конвейере к ответу движка не относится
+        AtomicLong dispatchTime = new AtomicLong();
+        boolean fetchFailed = false;
+        long fetchStart = System.nanoTime();
+        try {
+            externalTaskService.fetchAndLock(createFetchDto(maxTasks, fetchTopics), task -> {
+                fetched.incrementAndGet();
+                long dispatchStart = System.nanoTime();
+                dispatch(task, reservation);
+                dispatchTime.addAndGet(System.nanoTime() - dispatchStart);
+            });
+        } catch (CamundaRestException cre){
+            LOG.warn("Error while fetching external tasks",cre);
+            // уже разобранные таски остаются в конвейере
+            fetchFailed = true;
+        }
 
-            if (!CollectionUtils.isEmpty(tasks)) {
-                LOG.debug("Fetched [{}] task(-s)", tasks.size());
-                LOG.debug("Tasks: {}", tasks);
+        if (batchController != null) {
+            if (fetchFailed) {
+                batchController.onError();
+            } else {
+                long engineTime = System.nanoTime() - fetchStart - dispatchTime.get();
+                batchController.onResponse(maxTasks, fetched.get(), TimeUnit.NANOSECONDS.toMillis(engineTime));
             }
+        }
+
+        if (fetched.get() > 0) {
+            LOG.debug("Fetched [{}] task(-s)", fetched.get());
+        } else if (isLongPolling() && !fetchFailed) {
+            // engine has already held the request for asyncResponseTimeout, so fetch again immediately
+            LOG.debug("No tasks at topics of group [{}] after long polling for {}ms", plan.getGroup(), asyncResponseTimeout);
+        } else {
+            // другие группы продолжают выбираться, пока эта ждёт
+            long wait = topicActivity ? topicActivityEmptyWait : emptyWait;
+            LOG.debug("No tasks at topics of group [{}], let's wait for {}ms", plan.getGroup(), wait);
+            topicScheduler.idle(plan, wait);
+        }
+    }
+
+    /**
+     * Task goes to reserved place of convert stage, if there is no one left, waits for a free place
+     */
+    private void dispatch(LockedExternalTaskDto task, AtomicInteger reservation) {
+        if (Thread.currentThread().isInterrupted()) {
+            LOG.warn("External task processor thread [{}] is interrupted, task [{}] is left locked", Thread.currentThread().getName(), task.getId());
+            return;
+        }
+        LOG.debug("Task: {}", task);
 
-            if (CollectionUtils.isEmpty(tasks)) {
-                LOG.debug("No tasks at topics, let's wait for {}ms", emptyWait);
-                sleep();
+        topicScheduler.acquire(task.getTopicName());
+        try {
+            if (reservation.get() > 0) {
+                convertStage.putReserved(task);
+                reservation.decrementAndGet();
             } else {
-                tasks.forEach(task -> {
-                    try {
-                        Object command = taskManager.toCommand(task);
-
-                        LOG.debug("Read task: {}", command);
-                        taskSender.send(command);
-                    } catch (RuntimeException e) {
-                        LOG.error("Task [{}] execution failed", task, e);
-
-                        ExternalTaskFailureDto dto = new ExternalTaskFailureDto();
-                        dto.setWorkerId(workerId);
-                        dto.setErrorMessage(e.getMessage());
-
-                        JavaUtils.tryConsume(
-                                s -> externalTaskService.fail(task.getId(), s)
-                                , dto
-                                , consumeWait
-                                , consumeRetry
-                        );
-                    }
-                });
+                convertStage.put(task);
             }
+        } catch (InterruptedException e) {
+            LOG.warn("External task processor thread [{}] is interrupted, task [{}] is left locked", Thread.currentThread().getName(), task.getId());
+            topicScheduler.release(task.getTopicName());
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // один неверный таск не должен останавливать выборку
+            topicScheduler.release(task.getTopicName());
+            failTask(task, e);
+        }
+    }
+
+    private void convert(LockedExternalTaskDto task) {
+        try {
+            Object command = taskManager.toCommand(task);
+
+            LOG.debug("Read task: {}", command);
+            sendStage.put(Pair.of(task, command));
+        } catch (InterruptedException e) {
+            LOG.warn("Convert stage is interrupted, task [{}] is left locked", task.getId());
+            topicScheduler.release(task.getTopicName());
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            topicScheduler.release(task.getTopicName());
+            failTask(task, e);
+        }
+    }
+
+    private void send(Pair<LockedExternalTaskDto, Object> taskCommand) {
+        try {
+            taskSender.send(taskCommand.getValue());
+        } catch (RuntimeException e) {
+            failTask(taskCommand.getKey(), e);
+        } finally {
+            topicScheduler.release(taskCommand.getKey().getTopicName());
+        }
+    }
+
+    private void failTask(LockedExternalTaskDto task, RuntimeException e) {
+        LOG.error("Task [{}] execution failed", task, e);
+
+        ExternalTaskFailureDto dto = new ExternalTaskFailureDto();
+        dto.setWorkerId(workerId);
+        dto.setErrorMessage(e.getMessage());
+
+        // повторы идут в фоне, воркеры конвейера не ждут
+        retryScheduler.execute(
+                s -> externalTaskService.fail(task.getId(), s)
+                , dto
+                , ex -> LOG.error("Can't report failure of task [{}], it stays locked until lock expires", task.getId(), ex)
+        );
+    }
+
+    private FetchExternalTasksDto createFetchDto(int maxTasks, List<FetchExternalTasksDto.FetchExternalTaskTopicDto> topics) {
+        final FetchExternalTasksDto tasksDto;
+        if (isLongPolling()) {
+            FetchExternalTasksExtendedDto extendedDto = new FetchExternalTasksExtendedDto();
+            extendedDto.setAsyncResponseTimeout(asyncResponseTimeout);
+            tasksDto = extendedDto;
+        } else {
+            tasksDto = new FetchExternalTasksDto();
+        }
+        tasksDto.setMaxTasks(maxTasks);
+        tasksDto.setTopics(topics);
+        tasksDto.setWorkerId(workerId);
+        return tasksDto;
+    }
+
+    private static List<String> getTopicNames(List<FetchExternalTasksDto.FetchExternalTaskTopicDto> topics) {
+        return topics.stream()
+                .map(FetchExternalTasksDto.FetchExternalTaskTopicDto::getTopicName)
+                .collect(Collectors.toList());
+    }
+
+    private boolean isLongPolling() {
+        return asyncResponseTimeout > 0;
+    }
+
+    /**
+     * @return max count of tasks requested by one fetchAndLock
+     */
+    @ManagedAttribute
+    public int getBatchSize() {
+        return batchController == null ? taskBatchSize : batchController.getBatchSize();
+    }
+
+    @Override
+    public void onTopicActivity(String topicName) {
+        if (topicScheduler == null || !topicScheduler.wakeUp(topicName)) {
+            return;
+        }
+        LOG.debug("New tasks at topic [{}], waking up", topicName);
+        wakeUp();
+    }
+
+    @EventListener
+    public void onEngineAvailability(EngineAvailabilityEvent event) {
+        engineUnavailable = !event.isAvailable();
+        LOG.info("Engine is {}, fetching is {}", event.isAvailable() ? "available" : "unavailable"
+                , event.isAvailable() ? "resumed" : "paused");
+        if (event.isAvailable()) {
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        wakeUpLock.lock();
+        try {
+            wokenUp = true;
+            wakeUpCondition.signalAll();
+        } finally {
+            wakeUpLock.unlock();
         }
-        LOG.info("External task processor thread [{}] stopped", Thread.currentThread().getName());
     }
 
     public boolean isPaused() {
@@ -182,12 +533,25 @@ public class ExternalTaskProcessor implements Runnable {
         this.paused = paused;
     }
 
-    private void sleep() {
+    /**
+     * Waits for {@code millis} or until new tasks are reported by {@link #onTopicActivity(String)}
+     */
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(millis);
+        wakeUpLock.lock();
         try {
-            Thread.sleep(emptyWait);
+            while (!wokenUp && remaining > 0) {
+                remaining = wakeUpCondition.awaitNanos(remaining);
+            }
+            wokenUp = false;
         } catch (InterruptedException e) {
             LOG.warn("External tasks wait is interrupted, cause: {}", e.getMessage());
             Thread.currentThread().interrupt();
+        } finally {
+            wakeUpLock.unlock();
         }
     }
 }
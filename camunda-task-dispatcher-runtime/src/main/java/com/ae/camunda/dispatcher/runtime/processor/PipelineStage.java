@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Stage of the dispatching pipeline: bounded queue of items handled by a fixed number of workers.
+ * {@link #put(Object)} blocks while the queue is full, so upstream stages slow down with the slowest one.
+ * Producer which knows how many items it is going to put may {@link #reserve(int)} places first, so concurrent
+ * producers don't take more work than the queue holds.
+ */
+public class PipelineStage<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PipelineStage.class);
+
+    private static final long POLL_TIMEOUT = 100;
+
+    private final String name;
+
+    private final int concurrency;
+
+    private final BlockingQueue<T> queue;
+
+    private final Consumer<T> handler;
+
+    /**
+     * Free places of the queue, taken by put or reservation and returned when worker takes the item
+     */
+    private final Semaphore places;
+
+    private ExecutorService workers;
+
+    private volatile boolean running;
+
+    public PipelineStage(String name, int concurrency, int queueSize, Consumer<T> handler) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Stage '" + name + "' must have at least one worker");
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        this.places = new Semaphore(Math.max(queueSize, 1));
+        this.handler = handler;
+    }
+
+    public void start(ThreadFactory threadFactory) {
+        running = true;
+        workers = Executors.newFixedThreadPool(concurrency, threadFactory);
+        for (int i = 0; i < concurrency; ++i) {
+            workers.submit(this::work);
+        }
+        workers.shutdown();
+
+        LOG.info("Pipeline stage [{}] started with [{}] worker(-s) and queue size [{}]", name, concurrency, places.availablePermits());
+    }
+
+    /**
+     * Stops accepting new work and waits until the queued items are handled
+     */
+    public void stop(long timeout) throws InterruptedException {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+
+        if (!workers.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+            LOG.warn("Pipeline stage [{}] has not handled [{}] item(-s) in {}ms, interrupting", name, queue.size(), timeout);
+            workers.shutdownNow();
+            workers.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        }
+        LOG.info("Pipeline stage [{}] stopped", name);
+    }
+
+    public void put(T item) throws InterruptedException {
+        places.acquire();
+        queue.put(item);
+    }
+
+    /**
+     * Takes up to {@code max} free places for {@link #putReserved(Object)}, doesn't block
+     *
+     * @return count of reserved places, unused ones must be given back by {@link #release(int)}
+     */
+    public int reserve(int max) {
+        while (max > 0) {
+            int count = Math.min(max, places.availablePermits());
+            if (count == 0) {
+                return 0;
+            }
+            if (places.tryAcquire(count)) {
+                return count;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Puts item to place reserved by {@link #reserve(int)}, doesn't block
+     */
+    public void putReserved(T item) {
+        if (!queue.offer(item)) {
+            throw new IllegalStateException("Pipeline stage '" + name + "' has no reserved place");
+        }
+    }
+
+    public void release(int reserved) {
+        if (reserved > 0) {
+            places.release(reserved);
+        }
+    }
+
+    public int remainingCapacity() {
+        return places.availablePermits();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isSaturated() {
+        return places.availablePermits() == 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void work() {
+        while (running || !queue.isEmpty()) {
+            final T item;
+            try {
+                item = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (item != null) {
+                places.release();
+                try {
+                    handler.accept(item);
+                } catch (RuntimeException e) {
+                    LOG.error("Pipeline stage [{}] failed to handle item: {}", name, item, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.processor;
+
+import com.ae.camunda.dispatcher.api.annotation.CamundaTask;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses topics for the next fetchAndLock. Topics are split into groups, each request fetches one group,
+ * groups are chosen by smooth weighted round robin, so every group gets its share of fetch capacity.
+ * <p>
+ * Max in-flight is a soft limit: topic is left out of requests while it is saturated, but a request for several
+ * topics isn't shrunk by free slots of one of them, so the topic may exceed its limit by one batch.
+ */
+public class TopicScheduler {
+
+    private static final String TOPIC_PROPERTY_PREFIX = "camunda.dispatcher.runtime.topic.";
+
+    private final List<Group> groups;
+
+    private final Map<String, Group> groupsByTopic = new HashMap<>();
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public TopicScheduler(Collection<TopicSettings> topicSettings) {
+        Map<String, Group> groupsByName = new LinkedHashMap<>();
+        for (TopicSettings settings : topicSettings) {
+            inFlight.put(settings.getTopic().getTopicName(), new AtomicInteger());
+            Group group = groupsByName.computeIfAbsent(settings.getGroup(), Group::new);
+            group.add(settings);
+            groupsByTopic.put(settings.getTopic().getTopicName(), group);
+        }
+        this.groups = new ArrayList<>(groupsByName.values());
+    }
+
+    /**
+     * @param topicFilter topics allowed to fetch
+     * @return topics for the next request or {@code null} if every group is idle or blocked
+     */
+    public FetchPlan next(Predicate<String> topicFilter) {
+        long now = System.currentTimeMillis();
+        List<FetchPlan> candidates = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            if (group.idleUntil > now) {
+                continue;
+            }
+            FetchPlan plan = createPlan(group, topicFilter);
+            if (plan != null) {
+                candidates.add(plan);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        return choose(candidates);
+    }
+
+    /**
+     * Group is skipped until wait is over, e.g. it has no tasks
+     */
+    public void idle(FetchPlan plan, long wait) {
+        plan.group.idleUntil = System.currentTimeMillis() + wait;
+    }
+
+    /**
+     * Makes group of topic available for the next request, e.g. engine reported new tasks at topic
+     *
+     * @return {@code false} if topic isn't fetched by this scheduler
+     */
+    public boolean wakeUp(String topicName) {
+        Group group = groupsByTopic.get(topicName);
+        if (group == null) {
+            return false;
+        }
+        group.idleUntil = 0;
+        return true;
+    }
+
+    /**
+     * @return time until the first idle group wakes up or {@code defaultWait} if any group is blocked otherwise
+     */
+    public long getWaitTime(long defaultWait) {
+        long now = System.currentTimeMillis();
+        long wait = Long.MAX_VALUE;
+        for (Group group : groups) {
+            long groupWait = group.idleUntil - now;
+            if (groupWait <= 0) {
+                return defaultWait;
+            }
+            wait = Math.min(wait, groupWait);
+        }
+        return groups.isEmpty() ? defaultWait : wait;
+    }
+
+    public void acquire(String topicName) {
+        AtomicInteger counter = getCounter(topicName);
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+    }
+
+    public void release(String topicName) {
+        AtomicInteger counter = getCounter(topicName);
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    public int getInFlight(String topicName) {
+        AtomicInteger counter = getCounter(topicName);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * @return {@code null} for unknown topic, {@link ConcurrentHashMap} doesn't accept {@code null} topic name
+     */
+    private AtomicInteger getCounter(String topicName) {
+        return topicName == null ? null : inFlight.get(topicName);
+    }
+
+    private FetchPlan createPlan(Group group, Predicate<String> topicFilter) {
+        List<FetchExternalTasksDto.FetchExternalTaskTopicDto> planTopics = new ArrayList<>(group.topics.size());
+        int maxTasks = Integer.MAX_VALUE;
+        int free = Integer.MAX_VALUE;
+        for (TopicSettings settings : group.topics) {
+            String topicName = settings.getTopic().getTopicName();
+            if (!topicFilter.test(topicName)) {
+                continue;
+            }
+
+            if (settings.getMaxInFlight() > 0) {
+                int topicFree = settings.getMaxInFlight() - getInFlight(topicName);
+                if (topicFree <= 0) {
+                    // насыщенный топик исключается из запроса, остальные топики группы выбираются полным батчем
+                    continue;
+                }
+                free = topicFree;
+            } else {
+                free = Integer.MAX_VALUE;
+            }
+            if (settings.getBatchSize() > 0) {
+                maxTasks = Math.min(maxTasks, settings.getBatchSize());
+            }
+            planTopics.add(settings.getTopic());
+        }
+        if (planTopics.isEmpty()) {
+            return null;
+        }
+        if (planTopics.size() == 1) {
+            // весь батч достаётся единственному топику
+            maxTasks = Math.min(maxTasks, free);
+        }
+        return new FetchPlan(group, planTopics, maxTasks);
+    }
+
+    private synchronized FetchPlan choose(List<FetchPlan> candidates) {
+        int totalWeight = 0;
+        FetchPlan chosen = null;
+        for (FetchPlan candidate : candidates) {
+            Group group = candidate.group;
+            group.currentWeight += group.weight;
+            totalWeight += group.weight;
+            if (chosen == null || group.currentWeight > chosen.group.currentWeight) {
+                chosen = candidate;
+            }
+        }
+        chosen.group.currentWeight -= totalWeight;
+        return chosen;
+    }
+
+    /**
+     * Reads scheduling settings of topic from {@link CamundaTask} annotation,
+     * properties {@code camunda.dispatcher.runtime.topic.<topic name>.*} override them
+     */
+    public static TopicSettings readSettings(FetchExternalTasksDto.FetchExternalTaskTopicDto topic
+            , Class<?> commandClass
+            , PropertyResolver properties) {
+        CamundaTask annotation = commandClass == null ? null : commandClass.getAnnotation(CamundaTask.class);
+
+        String group = annotation == null ? "" : annotation.group();
+        int weight = annotation == null ? 1 : annotation.weight();
+        int maxInFlight = annotation == null ? 0 : annotation.maxInFlight();
+        int batchSize = annotation == null ? 0 : annotation.batchSize();
+
+        if (properties != null) {
+            String prefix = TOPIC_PROPERTY_PREFIX + topic.getTopicName() + ".";
+            group = properties.getProperty(prefix + "group", group);
+            weight = properties.getProperty(prefix + "weight", Integer.class, weight);
+            maxInFlight = properties.getProperty(prefix + "max-in-flight", Integer.class, maxInFlight);
+            batchSize = properties.getProperty(prefix + "batch-size", Integer.class, batchSize);
+        }
+
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight of topic [" + topic.getTopicName() + "] must be positive, but was [" + weight + "]");
+        }
+        return new TopicSettings(topic, group, weight, maxInFlight, batchSize);
+    }
+
+    public static class TopicSettings {
+
+        private final FetchExternalTasksDto.FetchExternalTaskTopicDto topic;
+
+        private final String group;
+
+        private final int weight;
+
+        private final int maxInFlight;
+
+        private final int batchSize;
+
+        public TopicSettings(FetchExternalTasksDto.FetchExternalTaskTopicDto topic, String group, int weight, int maxInFlight, int batchSize) {
+            this.topic = topic;
+            this.group = group;
+            this.weight = weight;
+            this.maxInFlight = maxInFlight;
+            this.batchSize = batchSize;
+        }
+
+        public FetchExternalTasksDto.FetchExternalTaskTopicDto getTopic() {
+            return topic;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        @Override
+        public String toString() {
+            return "TopicSettings{" +
+                    "topic=" + topic.getTopicName() +
+                    ", group='" + group + '\'' +
+                    ", weight=" + weight +
+                    ", maxInFlight=" + maxInFlight +
+                    ", batchSize=" + batchSize +
+                    '}';
+        }
+    }
+
+    public static class FetchPlan {
+
+        private final Group group;
+
+        private final List<FetchExternalTasksDto.FetchExternalTaskTopicDto> topics;
+
+        private final int maxTasks;
+
+        private FetchPlan(Group group, List<FetchExternalTasksDto.FetchExternalTaskTopicDto> topics, int maxTasks) {
+            this.group = group;
+            this.topics = Collections.unmodifiableList(topics);
+            this.maxTasks = maxTasks;
+        }
+
+        public String getGroup() {
+            return group.name;
+        }
+
+        public List<FetchExternalTasksDto.FetchExternalTaskTopicDto> getTopics() {
+            return topics;
+        }
+
+        /**
+         * @return limit of tasks by topic settings, {@link Integer#MAX_VALUE} if there is no limit
+         */
+        public int getMaxTasks() {
+            return maxTasks;
+        }
+
+        public List<String> getTopicNames() {
+            return topics.stream()
+                    .map(FetchExternalTasksDto.FetchExternalTaskTopicDto::getTopicName)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static class Group {
+
+        private final String name;
+
+        private final List<TopicSettings> topics = new ArrayList<>();
+
+        private int weight;
+
+        private int currentWeight;
+
+        private volatile long idleUntil;
+
+        private Group(String name) {
+            this.name = name;
+        }
+
+        private void add(TopicSettings settings) {
+            topics.add(settings);
+            weight += settings.getWeight();
+        }
+    }
+}
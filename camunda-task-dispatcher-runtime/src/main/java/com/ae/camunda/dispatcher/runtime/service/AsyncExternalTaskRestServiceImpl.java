@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import com.ae.camunda.dispatcher.api.service.AsyncExternalTaskRestService;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation on top of JDK {@link HttpClient}, requests don't hold any thread while waiting for the engine
+ */
+@Component
+@ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.mode", havingValue = "rest", matchIfMissing = true)
+public class AsyncExternalTaskRestServiceImpl implements AsyncExternalTaskRestService {
+
+    private static final String FETCH_AND_LOCK_TASKS = "fetchAndLock";
+
+    private static final String EXTERNAL_TASK = "external-task";
+
+    @Value("${camunda.dispatcher.runtime.engine-url}")
+    private String engineUrl;
+
+    @Value("${camunda.dispatcher.runtime.engine.async-response-timeout-margin:5000}")
+    private long asyncResponseTimeoutMargin = 5000;
+
+    /**
+     * Request body longer than this is gzipped, -1 disables compression
+     */
+    @Value("${camunda.dispatcher.runtime.engine.http.compression.request-min-size:-1}")
+    private int compressionMinSize = -1;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.compression.response:true}")
+    private boolean responseCompression = true;
+
+    @Autowired
+    private HttpClient httpClient;
+
+    /**
+     * Read timeout and credentials are shared with the pooled client of {@link EngineHttpClientConfig}
+     */
+    @Autowired(required = false)
+    private RequestConfig requestConfig;
+
+    @Autowired(required = false)
+    private CredentialsProvider credentialsProvider;
+
+    @Autowired(required = false)
+    private EngineEndpointSelector endpointSelector;
+
+    @Autowired(required = false)
+    private EngineCallGuard callGuard;
+
+    private ObjectMapper objectMapper;
+
+    private long readTimeout = 60000;
+
+    private String authorization;
+
+    @PostConstruct
+    public void init() {
+        objectMapper = new ObjectMapper();
+        if (requestConfig != null && requestConfig.getSocketTimeout() > 0) {
+            readTimeout = requestConfig.getSocketTimeout();
+        }
+        Credentials credentials = credentialsProvider == null ? null : credentialsProvider.getCredentials(AuthScope.ANY);
+        if (credentials != null) {
+            // JDK client sends credentials only after 401 challenge, so set them preemptively
+            String userPass = credentials.getUserPrincipal().getName() + ":" + credentials.getPassword();
+            authorization = "Basic " + Base64.getEncoder().encodeToString(userPass.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<LockedExternalTaskDto>> fetchAndLockAsync(FetchExternalTasksDto fetchingDto) {
+        long timeout = readTimeout;
+        boolean longPolling = false;
+        if (fetchingDto instanceof FetchExternalTasksExtendedDto) {
+            Long asyncResponseTimeout = ((FetchExternalTasksExtendedDto) fetchingDto).getAsyncResponseTimeout();
+            if (asyncResponseTimeout != null) {
+                timeout = asyncResponseTimeout + asyncResponseTimeoutMargin;
+                longPolling = true;
+            }
+        }
+
+        JavaType type = objectMapper.getTypeFactory().constructCollectionType(LinkedList.class, LockedExternalTaskDto.class);
+        return post(makeTaskPath(FETCH_AND_LOCK_TASKS), fetchingDto, timeout, !longPolling)
+                .thenApply(body -> JavaUtils.callWithoutCheckedException(() -> objectMapper.<List<LockedExternalTaskDto>>readValue(body, type)));
+    }
+
+    @Override
+    public CompletableFuture<Void> failAsync(String taskId, ExternalTaskFailureDto dto) {
+        return post(makeTaskPath(taskId, "failure"), dto, readTimeout, true).thenApply(body -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> completeAsync(String taskId, CompleteExternalTaskDto dto) {
+        return post(makeTaskPath(taskId, "complete"), dto, readTimeout, true).thenApply(body -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> extendLockAsync(String taskId, ExtendLockOnExternalTaskDto dto) {
+        return post(makeTaskPath(taskId, "extendLock"), dto, readTimeout, true).thenApply(body -> null);
+    }
+
+    /**
+     * Call over concurrency limit of {@link EngineCallGuard} is rejected at once, caller thread mustn't block
+     *
+     * @param limited call is subject to concurrency limit, {@code false} for long polling
+     */
+    private CompletableFuture<byte[]> post(String path, Object data, long timeout, boolean limited) {
+        if (callGuard == null) {
+            return post(path, data, timeout);
+        }
+
+        final EngineCallGuard.Permit permit;
+        try {
+            permit = callGuard.tryAcquire(limited);
+        } catch (CamundaRestException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final CompletableFuture<byte[]> response;
+        try {
+            response = post(path, data, timeout);
+        } catch (RuntimeException e) {
+            callGuard.release(permit, e);
+            return CompletableFuture.failedFuture(new CamundaRestException(e));
+        }
+        return response.whenComplete((body, e) -> callGuard.release(permit, toException(e)));
+    }
+
+    /**
+     * Node is chosen by {@link EngineEndpointSelector}, but failed request isn't repeated on another one.
+     * Error is returned as failed future, chosen node is released in any case
+     */
+    private CompletableFuture<byte[]> post(String path, Object data, long timeout) {
+        final HttpRequest.Builder request;
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(data);
+            request = HttpRequest.newBuilder()
+                    .timeout(Duration.ofMillis(timeout))
+                    .header("Content-Type", "application/json");
+            if (compressionMinSize >= 0 && body.length > compressionMinSize) {
+                body = gzip(body);
+                request.header("Content-Encoding", "gzip");
+            }
+            if (responseCompression) {
+                // JDK клиент сам не распаковывает ответ, это делает toBody
+                request.header("Accept-Encoding", "gzip");
+            }
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (endpointSelector == null) {
+                request.uri(URI.create(engineUrl + path));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new CamundaRestException(e));
+        }
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+
+        if (endpointSelector == null) {
+            try {
+                return send(request);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(new CamundaRestException(e));
+            }
+        }
+
+        final EngineEndpointSelector.Endpoint endpoint;
+        try {
+            endpoint = endpointSelector.acquire(Collections.emptyList());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(new CamundaRestException(e));
+        }
+        final CompletableFuture<byte[]> response;
+        try {
+            response = send(request.uri(URI.create(endpoint.getUrl() + path)));
+        } catch (RuntimeException e) {
+            // например, неверный URL узла, запрос не отправлен
+            endpointSelector.release(endpoint, e);
+            return CompletableFuture.failedFuture(new CamundaRestException(e));
+        }
+        return response.whenComplete((body, e) -> endpointSelector.release(endpoint, toException(e)));
+    }
+
+    private static Exception toException(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause == null || cause instanceof Exception ? (Exception) cause : new CompletionException(cause);
+    }
+
+    private CompletableFuture<byte[]> send(HttpRequest.Builder request) {
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle(AsyncExternalTaskRestServiceImpl::toBody)
+                .thenCompose(future -> future);
+    }
+
+    private static CompletableFuture<byte[]> toBody(HttpResponse<byte[]> response, Throwable e) {
+        if (e != null) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return CompletableFuture.failedFuture(new CamundaRestException(cause));
+        }
+
+        byte[] body = response.body();
+        // пустое тело, например у 204, не сжимается, даже если заголовок есть
+        if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()
+                && body.length > 0) {
+            try {
+                body = gunzip(body);
+            } catch (IOException ex) {
+                return CompletableFuture.failedFuture(new CamundaRestException(ex));
+            }
+        }
+
+        int statusCode = response.statusCode();
+        if (statusCode != 200 && statusCode != 204) {
+            return CompletableFuture.failedFuture(CamundaRestException.fromCodeAndResponse(statusCode
+                    , new String(body, StandardCharsets.UTF_8)));
+        }
+        return CompletableFuture.completedFuture(body);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    private static String makeTaskPath(String taskId, String action) {
+        return "/" + EXTERNAL_TASK + "/" + taskId + "/" + action;
+    }
+
+    private static String makeTaskPath(String action) {
+        return "/" + EXTERNAL_TASK + "/" + action;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import com.ae.camunda.dispatcher.api.service.ExternalTaskRestService;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.exception.NotFoundException;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls {@link org.camunda.bpm.engine.ExternalTaskService} of the engine running in the same JVM,
+ * without HTTP and JSON. Errors are reported with the same codes as engine REST API returns
+ */
+@Component
+@ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.mode", havingValue = "embedded")
+public class EmbeddedExternalTaskRestService implements ExternalTaskRestService {
+
+    /**
+     * Engine API has no long polling, so empty fetch is repeated with this interval until asyncResponseTimeout
+     */
+    @Value("${camunda.dispatcher.runtime.engine.embedded.poll-interval:500}")
+    private long pollInterval = 500;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public List<LockedExternalTaskDto> fetchAndLock(FetchExternalTasksDto fetchingDto) throws CamundaRestException {
+        Long asyncResponseTimeout = fetchingDto instanceof FetchExternalTasksExtendedDto
+                ? ((FetchExternalTasksExtendedDto) fetchingDto).getAsyncResponseTimeout()
+                : null;
+        long deadline = System.currentTimeMillis() + (asyncResponseTimeout == null ? 0 : asyncResponseTimeout);
+        try {
+            while (true) {
+                List<LockedExternalTask> tasks = fetchingDto.buildQuery(processEngine).execute();
+                long wait = Math.min(pollInterval, deadline - System.currentTimeMillis());
+                if (!tasks.isEmpty() || wait <= 0) {
+                    return LockedExternalTaskDto.fromLockedExternalTasks(tasks);
+                }
+                Thread.sleep(wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CamundaRestException(e);
+        } catch (RuntimeException e) {
+            throw toRestException(e);
+        }
+    }
+
+    @Override
+    public void fail(String taskId, ExternalTaskFailureDto dto) throws CamundaRestException {
+        try {
+            processEngine.getExternalTaskService().handleFailure(taskId, dto.getWorkerId(), dto.getErrorMessage()
+                    , dto.getErrorDetails(), dto.getRetries(), dto.getRetryTimeout());
+        } catch (RuntimeException e) {
+            throw toRestException(e);
+        }
+    }
+
+    @Override
+    public void complete(String taskId, CompleteExternalTaskDto dto) throws CamundaRestException {
+        try {
+            processEngine.getExternalTaskService().complete(taskId, dto.getWorkerId()
+                    , toVariables(dto.getVariables()), toVariables(dto.getLocalVariables()));
+        } catch (RuntimeException e) {
+            throw toRestException(e);
+        }
+    }
+
+    @Override
+    public void extendLock(String taskId, ExtendLockOnExternalTaskDto dto) throws CamundaRestException {
+        try {
+            processEngine.getExternalTaskService().extendLock(taskId, dto.getWorkerId(), dto.getNewDuration());
+        } catch (RuntimeException e) {
+            throw toRestException(e);
+        }
+    }
+
+    private Map<String, Object> toVariables(Map<String, VariableValueDto> variables) {
+        return VariableValueDto.toMap(variables, processEngine, objectMapper);
+    }
+
+    /**
+     * Maps engine exception to the HTTP code engine REST API would respond with
+     */
+    static CamundaRestException toRestException(RuntimeException e) {
+        int code = e instanceof NotFoundException ? 404
+                : e instanceof BadUserRequestException ? 400
+                : 500;
+        CamundaRestException exception = CamundaRestException.fromCodeAndResponse(code, e.getMessage());
+        exception.initCause(e);
+        return exception;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import com.ae.camunda.dispatcher.api.service.SignalRestService;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.PartialSignalException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.rest.dto.SignalDto;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.runtime.Execution;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Fires signals through {@link RuntimeService} of the engine running in the same JVM
+ */
+@Component
+@ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.mode", havingValue = "embedded")
+public class EmbeddedSignalRestService implements SignalRestService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedSignalRestService.class);
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void fire(String businessKey, SignalDto signal) throws CamundaRestException {
+        LOG.debug("Firing signal [{}] for businessKey [{}]", signal.getName(), businessKey);
+
+        try {
+            RuntimeService runtimeService = processEngine.getRuntimeService();
+            final List<String> executions = runtimeService.createExecutionQuery()
+                    .processInstanceBusinessKey(businessKey)
+                    .signalEventSubscriptionName(signal.getName())
+                    .list()
+                    .stream()
+                    .filter(execution -> !execution.isEnded())
+                    .map(Execution::getId)
+                    .collect(Collectors.toList());
+
+            if (executions.isEmpty()) {
+                throw CamundaRestException.fromCodeAndResponse(404, "There is no active execution with business key "
+                        + businessKey + " subscribed to signal event: " + signal.getName());
+            } else {
+                LOG.debug("Found active executions for businessKey [{}]: {}", businessKey, executions);
+            }
+
+            fire(signal, executions);
+        } catch (RuntimeException e) {
+            throw EmbeddedExternalTaskRestService.toRestException(e);
+        }
+    }
+
+    @Override
+    public void fire(SignalDto signal, Collection<String> executionIds) throws CamundaRestException {
+        final Map<String, Object> variables;
+        try {
+            variables = VariableValueDto.toMap(signal.getVariables(), processEngine, objectMapper);
+        } catch (RuntimeException e) {
+            throw EmbeddedExternalTaskRestService.toRestException(e);
+        }
+
+        // каждая execution сигналится в своей транзакции, так что ошибка одной не откатывает остальные
+        final Map<String, Exception> failures = new LinkedHashMap<>();
+        for (String executionId : executionIds) {
+            try {
+                processEngine.getRuntimeService()
+                        .createSignalEvent(signal.getName())
+                        .executionId(executionId)
+                        .setVariables(variables)
+                        .send();
+            } catch (RuntimeException e) {
+                failures.put(executionId, EmbeddedExternalTaskRestService.toRestException(e));
+            }
+        }
+        PartialSignalException.throwIfFailed(signal.getName(), executionIds.size(), failures);
+    }
+
+    @Override
+    public void correlate(String businessKey, SignalDto signal) throws CamundaRestException {
+        LOG.debug("Correlating message [{}] for businessKey [{}]", signal.getName(), businessKey);
+
+        try {
+            final List<MessageCorrelationResult> results = processEngine.getRuntimeService()
+                    .createMessageCorrelation(signal.getName())
+                    .processInstanceBusinessKey(businessKey)
+                    .setVariables(VariableValueDto.toMap(signal.getVariables(), processEngine, objectMapper))
+                    .correlateAllWithResult();
+
+            if (results.isEmpty()) {
+                throw CamundaRestException.fromCodeAndResponse(404, "There is no active execution with business key "
+                        + businessKey + " waiting for message: " + signal.getName());
+            }
+            LOG.debug("Message [{}] is correlated to [{}] execution(-s) of businessKey [{}]", signal.getName(), results.size(), businessKey);
+        } catch (RuntimeException e) {
+            throw EmbeddedExternalTaskRestService.toRestException(e);
+        }
+    }
+}
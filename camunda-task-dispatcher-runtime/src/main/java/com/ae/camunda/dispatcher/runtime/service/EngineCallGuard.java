@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import com.ae.camunda.dispatcher.api.service.EngineAvailabilityEvent;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.EngineRejectedException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Protects engine from overload caused by dispatcher itself.
+ * <p>
+ * Concurrency limit follows call latency (gradient algorithm): while call time stays near its long-term average
+ * the limit grows, when engine slows down the limit shrinks, node failure cuts it at once. Call over the limit
+ * waits up to {@code acquireTimeout} and then is rejected with {@link EngineRejectedException}, so it goes to retry
+ * with backoff instead of piling up at engine. Long polling fetch isn't limited, it holds connection while engine
+ * does nothing.
+ * <p>
+ * Circuit breaker opens after {@code failureThreshold} node failures in a row: calls are rejected at once and
+ * {@link EngineAvailabilityEvent} tells consumers to stop taking work. After {@code openTime} breaker lets
+ * {@code halfOpenCalls} trial calls through, long polling included, first success closes it and failure opens it
+ * again. Result of a call admitted before the last state change doesn't move the breaker
+ */
+@ManagedResource
+public class EngineCallGuard {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EngineCallGuard.class);
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    /**
+     * Count of calls averaged by long-term latency
+     */
+    private static final int RTT_WINDOW = 100;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double smoothing;
+
+    private final long acquireTimeout;
+
+    private final int failureThreshold;
+
+    private final long openTime;
+
+    private final int halfOpenCalls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private final ScheduledExecutorService scheduler;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private double limit;
+
+    private int inFlight;
+
+    private double longRtt;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    /**
+     * Incremented by each state change, permit of older generation is stale
+     */
+    private long generation;
+
+    /**
+     * Trial calls in flight while breaker is half-open
+     */
+    private int trialCalls;
+
+    /**
+     * @param tolerance      latency growth over long-term average which doesn't shrink the limit, e.g. 1.5
+     * @param smoothing      share of new limit estimate applied by one call, from 0 to 1
+     * @param acquireTimeout max wait of a call for free slot, ms
+     * @param openTime       time breaker stays open before trial calls, ms
+     */
+    public EngineCallGuard(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing
+            , long acquireTimeout, int failureThreshold, long openTime, int halfOpenCalls) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.max(0.0, Math.min(1.0, smoothing));
+        this.acquireTimeout = acquireTimeout;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openTime = openTime;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        // события публикуются не из потока вызова, он может быть потоком JMS контейнера, который они останавливают
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("engine-call-guard-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param limited call is subject to concurrency limit, {@code false} for long polling
+     */
+    public <T> T execute(GuardedCall<T> call, boolean limited) throws CamundaRestException {
+        Permit permit = acquire(limited);
+        try {
+            T result = call.call();
+            release(permit, null);
+            return result;
+        } catch (CamundaRestException | RuntimeException e) {
+            release(permit, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for free slot, caller must {@link #release(Permit, Exception)} it when call is finished
+     *
+     * @throws EngineRejectedException if breaker is open or no slot was freed in time
+     */
+    public Permit acquire(boolean limited) throws CamundaRestException {
+        return acquire(limited, TimeUnit.MILLISECONDS.toNanos(acquireTimeout));
+    }
+
+    /**
+     * Same as {@link #acquire(boolean)} but doesn't wait for free slot
+     */
+    public Permit tryAcquire(boolean limited) throws CamundaRestException {
+        return acquire(limited, 0);
+    }
+
+    private Permit acquire(boolean limited, long timeoutNanos) throws CamundaRestException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        lock.lock();
+        try {
+            while (true) {
+                if (state == State.OPEN) {
+                    throw rejected("Engine circuit breaker is open");
+                }
+                boolean trial = state == State.HALF_OPEN;
+                if ((!trial || trialCalls < halfOpenCalls) && (!limited || inFlight < (int) limit)) {
+                    if (trial) {
+                        trialCalls++;
+                    }
+                    if (limited) {
+                        inFlight++;
+                    }
+                    return new Permit(limited, limited ? inFlight : 0, trial, generation);
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw rejected(trial
+                            ? "Engine circuit breaker is half-open, [" + halfOpenCalls + "] trial call(-s) are in flight"
+                            : "Engine concurrency limit [" + (int) limit + "] is reached");
+                }
+                released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CamundaRestException("Wait for engine call slot is interrupted", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param error exception of the call or {@code null} if it succeeded
+     */
+    public void release(Permit permit, Exception error) {
+        long rtt = System.nanoTime() - permit.start;
+        boolean failure = error != null && EngineEndpointSelector.isNodeFailure(error);
+        lock.lock();
+        try {
+            if (permit.limited) {
+                inFlight--;
+                updateLimit(rtt, failure, permit.inFlight);
+            }
+            // вызов, начатый до смены состояния, о текущем состоянии движка не говорит
+            if (permit.generation == generation) {
+                if (permit.trial) {
+                    trialCalls--;
+                }
+                if (failure) {
+                    onFailure(error);
+                } else {
+                    onSuccess();
+                }
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rtt, boolean failure, int inFlightAtStart) {
+        if (failure) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / RTT_WINDOW;
+        if (inFlightAtStart < limit / 2) {
+            // до лимита далеко, время ответа ничего не говорит о нём
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / Math.max(1, rtt)));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + estimate * smoothing));
+    }
+
+    private void onSuccess() {
+        failures = 0;
+        if (state == State.HALF_OPEN) {
+            setState(State.CLOSED);
+            LOG.info("Engine circuit breaker is closed");
+        }
+    }
+
+    private void onFailure(Exception error) {
+        if (state == State.OPEN) {
+            return;
+        }
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            setState(State.OPEN);
+            LOG.warn("Engine circuit breaker is open for {}ms after {} failures in a row, cause: {}"
+                    , openTime, failures, error.getMessage());
+            failures = 0;
+            publish(false);
+            schedule(this::halfOpen, openTime);
+        }
+    }
+
+    private void halfOpen() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return;
+            }
+            setState(State.HALF_OPEN);
+            LOG.info("Engine circuit breaker is half-open, trying {} call(-s)", halfOpenCalls);
+            publish(true);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setState(State state) {
+        this.state = state;
+        generation++;
+        trialCalls = 0;
+    }
+
+    private void publish(boolean available) {
+        if (eventPublisher != null) {
+            schedule(() -> eventPublisher.publishEvent(new EngineAvailabilityEvent(this, available)), 0);
+        }
+    }
+
+    private void schedule(Runnable task, long delay) {
+        try {
+            scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Engine call guard is stopped, task is skipped");
+        }
+    }
+
+    private static CamundaRestException rejected(String message) {
+        return new EngineRejectedException(message);
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ManagedAttribute
+    public String getStateName() {
+        return getState().name();
+    }
+
+    @ManagedAttribute
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ManagedAttribute
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface GuardedCall<T> {
+        T call() throws CamundaRestException;
+    }
+
+    public static final class Permit {
+
+        private final boolean limited;
+
+        /**
+         * Calls in flight including this one at the moment it started
+         */
+        private final int inFlight;
+
+        private final boolean trial;
+
+        private final long generation;
+
+        private final long start = System.nanoTime();
+
+        private Permit(boolean limited, int inFlight, boolean trial, long generation) {
+            this.limited = limited;
+            this.inFlight = inFlight;
+            this.trial = trial;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import org.apache.http.HttpStatus;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Balances requests between engine nodes sharing one database. Node is chosen by power of two choices:
+ * of two random nodes the one with fewer outstanding requests is taken. Node failing {@code failureThreshold}
+ * times in a row is ejected for {@code ejectionTime}; if every node is ejected they are used anyway.
+ * <p>
+ * Node failure is I/O error or 502, 503, 504 response, other responses mean node is alive.
+ * Call is repeated on another node if it wasn't sent at all (connection failed) or if it is idempotent
+ */
+public class EngineEndpointSelector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EngineEndpointSelector.class);
+
+    private final List<Endpoint> endpoints;
+
+    private final int failureThreshold;
+
+    private final long ejectionTime;
+
+    private final int maxAttempts;
+
+    /**
+     * @param engineUrls  comma separated base URLs of engine REST API
+     * @param maxAttempts max count of nodes tried by one call
+     */
+    public EngineEndpointSelector(String engineUrls, int failureThreshold, long ejectionTime, int maxAttempts) {
+        List<Endpoint> parsed = new ArrayList<>();
+        for (String url : engineUrls.split(",")) {
+            String trimmed = url.trim();
+            while (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (!trimmed.isEmpty()) {
+                // неверный адрес должен падать при старте, а не на каждом вызове
+                URI.create(trimmed);
+                parsed.add(new Endpoint(trimmed));
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("Engine URL isn't set");
+        }
+        this.endpoints = Collections.unmodifiableList(parsed);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.ejectionTime = ejectionTime;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Calls engine trying other nodes on node failure
+     *
+     * @param idempotent call may be repeated even if node has failed after request was sent
+     */
+    public <T> T execute(EngineCall<T> call, boolean idempotent) throws CamundaRestException {
+        int attempts = Math.min(maxAttempts, endpoints.size());
+        List<Endpoint> tried = new ArrayList<>(attempts);
+        Exception lastError = null;
+        while (tried.size() < attempts) {
+            Endpoint endpoint = acquire(tried);
+            tried.add(endpoint);
+            try {
+                T result = call.call(endpoint.getUrl());
+                release(endpoint, null);
+                return result;
+            } catch (Exception e) {
+                release(endpoint, e);
+                lastError = e;
+                if (!isNodeFailure(e) || !(idempotent || isNotSent(e))) {
+                    break;
+                }
+                LOG.debug("Engine call to [{}] failed, cause: {}", endpoint.getUrl(), e.getMessage());
+            }
+        }
+
+        if (lastError instanceof CamundaRestException) {
+            throw (CamundaRestException) lastError;
+        }
+        throw new CamundaRestException(lastError);
+    }
+
+    /**
+     * Chooses node for a call, caller must {@link #release(Endpoint, Exception)} it when call is finished
+     *
+     * @param excluded nodes already tried by the call
+     */
+    public Endpoint acquire(Collection<Endpoint> excluded) {
+        long now = System.currentTimeMillis();
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!excluded.contains(endpoint) && endpoint.ejectedUntil <= now) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // лучше попробовать выброшенный узел, чем не пытаться совсем
+            for (Endpoint endpoint : endpoints) {
+                if (!excluded.contains(endpoint)) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(endpoints);
+        }
+
+        Endpoint chosen;
+        if (candidates.size() == 1) {
+            chosen = candidates.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            Endpoint firstEndpoint = candidates.get(first);
+            Endpoint secondEndpoint = candidates.get(second);
+            chosen = firstEndpoint.getOutstanding() <= secondEndpoint.getOutstanding() ? firstEndpoint : secondEndpoint;
+        }
+        chosen.outstanding.incrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * @param error exception of the call or {@code null} if it succeeded
+     */
+    public void release(Endpoint endpoint, Exception error) {
+        endpoint.outstanding.decrementAndGet();
+        if (error == null || !isNodeFailure(error)) {
+            endpoint.failures.set(0);
+            return;
+        }
+
+        int failures = endpoint.failures.incrementAndGet();
+        if (failures >= failureThreshold) {
+            endpoint.failures.set(0);
+            endpoint.ejectedUntil = System.currentTimeMillis() + ejectionTime;
+            LOG.warn("Engine node [{}] is ejected for {}ms after {} failures in a row, cause: {}"
+                    , endpoint.getUrl(), ejectionTime, failures, error.getMessage());
+        }
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return {@code true} if error says nothing about request itself, but node is unavailable
+     */
+    public static boolean isNodeFailure(Throwable error) {
+        if (error instanceof CamundaRestException) {
+            int code = ((CamundaRestException) error).getHttpCode();
+            if (code == 0) {
+                return error.getCause() != null && isNodeFailure(error.getCause());
+            }
+            return code == HttpStatus.SC_BAD_GATEWAY
+                    || code == HttpStatus.SC_SERVICE_UNAVAILABLE
+                    || code == HttpStatus.SC_GATEWAY_TIMEOUT;
+        }
+        return error instanceof IOException;
+    }
+
+    private static boolean isNotSent(Throwable error) {
+        Throwable cause = error instanceof CamundaRestException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof ConnectException || cause instanceof ConnectTimeoutException;
+    }
+
+    @FunctionalInterface
+    public interface EngineCall<T> {
+        T call(String engineUrl) throws Exception;
+    }
+
+    public static class Endpoint {
+
+        private final String url;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private volatile long ejectedUntil;
+
+        private Endpoint(String url) {
+            this.url = url;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isEjected() {
+            return ejectedUntil > System.currentTimeMillis();
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client shared by engine REST services
+ */
+@Configuration
+@ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.mode", havingValue = "rest", matchIfMissing = true)
+public class EngineHttpClientConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EngineHttpClientConfig.class);
+
+    /**
+     * Comma separated URLs of engine nodes sharing one database
+     */
+    @Value("${camunda.dispatcher.runtime.engine-url}")
+    private String engineUrl;
+
+    /**
+     * Node failing so many times in a row is ejected
+     */
+    @Value("${camunda.dispatcher.runtime.engine.balancing.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${camunda.dispatcher.runtime.engine.balancing.ejection-time:30000}")
+    private long ejectionTime;
+
+    /**
+     * Max count of nodes tried by one call
+     */
+    @Value("${camunda.dispatcher.runtime.engine.balancing.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.limit.initial:20}")
+    private int guardInitialLimit;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.limit.min:1}")
+    private int guardMinLimit;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.limit.max:200}")
+    private int guardMaxLimit;
+
+    /**
+     * Latency growth over long-term average which doesn't shrink concurrency limit
+     */
+    @Value("${camunda.dispatcher.runtime.engine.guard.limit.tolerance:1.5}")
+    private double guardTolerance;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.limit.smoothing:0.2}")
+    private double guardSmoothing;
+
+    /**
+     * Max wait of a call over concurrency limit before it is rejected
+     */
+    @Value("${camunda.dispatcher.runtime.engine.guard.limit.acquire-timeout:5000}")
+    private long guardAcquireTimeout;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.breaker.open-time:30000}")
+    private long breakerOpenTime;
+
+    @Value("${camunda.dispatcher.runtime.engine.guard.breaker.half-open-calls:1}")
+    private int breakerHalfOpenCalls;
+
+    @Value("${camunda.dispatcher.runtime.engine.user:}")
+    private String camundaUser;
+
+    @Value("${camunda.dispatcher.runtime.engine.pass:}")
+    private String camundaPass;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.max-total:100}")
+    private int maxTotal;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.connect-timeout:5000}")
+    private int connectTimeout;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.read-timeout:60000}")
+    private int readTimeout;
+
+    /**
+     * Max wait for free connection of the pool
+     */
+    @Value("${camunda.dispatcher.runtime.engine.http.pool-acquire-timeout:10000}")
+    private int poolAcquireTimeout;
+
+    /**
+     * Used when engine doesn't send {@code Keep-Alive} header
+     */
+    @Value("${camunda.dispatcher.runtime.engine.http.keep-alive:30000}")
+    private long keepAlive;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.idle-timeout:30000}")
+    private long idleTimeout;
+
+    @Value("${camunda.dispatcher.runtime.engine.http.validate-after-inactivity:2000}")
+    private int validateAfterInactivity;
+
+    /**
+     * Sends {@code Accept-Encoding: gzip,deflate} and decompresses response while it is read,
+     * engine must compress {@code application/json}, e.g. by {@code server.compression.*} of Spring Boot
+     */
+    @Value("${camunda.dispatcher.runtime.engine.http.compression.response:true}")
+    private boolean responseCompression;
+
+    @Bean
+    public PoolingHttpClientConnectionManager engineConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+        LOG.info("Engine HTTP connection pool: max total [{}], max per route [{}]", maxTotal, maxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean
+    public RequestConfig engineRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(poolAcquireTimeout)
+                .build();
+    }
+
+    /**
+     * Empty when engine doesn't require authentication
+     */
+    @Bean
+    public CredentialsProvider engineCredentialsProvider() {
+        final BasicCredentialsProvider provider = new BasicCredentialsProvider();
+        if (StringUtils.hasText(camundaUser)) {
+            provider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(camundaUser, camundaPass));
+        }
+        return provider;
+    }
+
+    @Bean
+    public CloseableHttpClient engineHttpClient(PoolingHttpClientConnectionManager engineConnectionManager
+            , RequestConfig engineRequestConfig, CredentialsProvider engineCredentialsProvider) {
+        final HttpClientBuilder clientBuilder = HttpClientBuilder.create()
+                .setConnectionManager(engineConnectionManager)
+                .setDefaultRequestConfig(engineRequestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+
+        if (!responseCompression) {
+            clientBuilder.disableContentCompression();
+        }
+
+        if (StringUtils.hasText(camundaUser)) {
+            clientBuilder.setDefaultCredentialsProvider(engineCredentialsProvider);
+        }
+        return clientBuilder.build();
+    }
+
+    /**
+     * Non-blocking client of {@link AsyncExternalTaskRestServiceImpl}. Pool of {@link #engineHttpClient} is blocking
+     * and can't serve requests which don't hold a thread, so this one keeps its own connections, but takes the same
+     * timeouts and credentials
+     */
+    @Bean
+    public HttpClient engineAsyncHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+    }
+
+    @Bean
+    public EngineEndpointSelector engineEndpointSelector() {
+        EngineEndpointSelector selector = new EngineEndpointSelector(engineUrl, failureThreshold, ejectionTime, maxAttempts);
+        LOG.info("Engine nodes: {}", selector.getEndpoints());
+        return selector;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.guard.enabled", havingValue = "true")
+    public EngineCallGuard engineCallGuard(ApplicationEventPublisher eventPublisher) {
+        EngineCallGuard guard = new EngineCallGuard(guardInitialLimit, guardMinLimit, guardMaxLimit, guardTolerance
+                , guardSmoothing, guardAcquireTimeout, breakerFailureThreshold, breakerOpenTime, breakerHalfOpenCalls);
+        guard.setEventPublisher(eventPublisher);
+        LOG.info("Engine call guard is enabled: concurrency limit [{}..{}], breaker opens after [{}] failures"
+                , guardMinLimit, guardMaxLimit, breakerFailureThreshold);
+        return guard;
+    }
+
+    @Bean
+    public EngineHttpClientPoolStatistics engineHttpClientPoolStatistics(PoolingHttpClientConnectionManager engineConnectionManager) {
+        return new EngineHttpClientPoolStatistics(engineConnectionManager);
+    }
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAlive;
+        };
+    }
+}
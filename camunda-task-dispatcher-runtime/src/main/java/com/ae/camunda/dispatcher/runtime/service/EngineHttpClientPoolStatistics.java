@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Statistics of engine HTTP connection pool. Growing {@code Pending} means the pool is too small
+ */
+@ManagedResource
+public class EngineHttpClientPoolStatistics {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public EngineHttpClientPoolStatistics(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @ManagedAttribute
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    @ManagedAttribute
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    @ManagedAttribute
+    public int getAvailable() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    @ManagedAttribute
+    public int getMax() {
+        return connectionManager.getTotalStats().getMax();
+    }
+
+    @Override
+    public String toString() {
+        return "EngineHttpClientPoolStatistics" + connectionManager.getTotalStats();
+    }
+}
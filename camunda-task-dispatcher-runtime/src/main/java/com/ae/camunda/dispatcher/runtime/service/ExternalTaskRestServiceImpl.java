@@ -18,37 +18,41 @@ package com.ae.camunda.dispatcher.runtime.service;
 
 import com.ae.camunda.dispatcher.api.service.ExternalTaskRestService;
 import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.io.IOUtils;
-import org.apache.http.HttpHeaders;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Component
+@ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.mode", havingValue = "rest", matchIfMissing = true)
 public class ExternalTaskRestServiceImpl implements ExternalTaskRestService {
 
     private static final String FETCH_AND_LOCK_TASKS = "fetchAndLock";
@@ -58,37 +62,116 @@ public class ExternalTaskRestServiceImpl implements ExternalTaskRestService {
     @Value("${camunda.dispatcher.runtime.engine-url}")
     private String engineUrl;
 
-    @Value("${camunda.dispatcher.runtime.engine.user:}")
-    private String camundaUser;
+    /**
+     * Time added to {@code asyncResponseTimeout} of long polling fetch to get HTTP read timeout
+     */
+    @Value("${camunda.dispatcher.runtime.engine.async-response-timeout-margin:5000}")
+    private long asyncResponseTimeoutMargin = 5000;
 
-    @Value("${camunda.dispatcher.runtime.engine.pass:}")
-    private String camundaPass;
+    /**
+     * Request body longer than this is gzipped, -1 disables compression
+     */
+    @Value("${camunda.dispatcher.runtime.engine.http.compression.request-min-size:-1}")
+    private int compressionMinSize = -1;
 
     private ObjectMapper objectMapper;
 
+    private ObjectWriter objectWriter;
+
+    @Autowired
     private HttpClient httpClient;
 
+    @Autowired(required = false)
+    private RequestConfig requestConfig;
+
+    @Autowired(required = false)
+    private EngineEndpointSelector endpointSelector;
+
+    @Autowired(required = false)
+    private EngineCallGuard callGuard;
+
     @PostConstruct
     public void init() {
         objectMapper = new ObjectMapper();
-        final HttpClientBuilder clientBuilder = HttpClientBuilder.create();
-        if (StringUtils.hasText(camundaUser)) {
-            final BasicCredentialsProvider provider = new BasicCredentialsProvider();
-            provider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(camundaUser, camundaPass));
-            clientBuilder.setDefaultCredentialsProvider(provider);
-        }
-        httpClient = clientBuilder.build();
+        // поток соединения закрывает сам HttpClient
+        objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
+    /**
+     * Isn't repeated on another node once request is sent: node may have locked tasks before it failed to answer,
+     * they would stay locked till lock expiration while the other node locks the next ones
+     */
     @Override
     public List<LockedExternalTaskDto> fetchAndLock(FetchExternalTasksDto fetchingDto) throws CamundaRestException {
-        HttpPost post = new HttpPost(makeTaskUrl(FETCH_AND_LOCK_TASKS));
+        return execute(url -> executeAbstractMethod(createFetchRequest(url, fetchingDto)
+                , objectMapper.getTypeFactory().constructCollectionType(LinkedList.class, LockedExternalTaskDto.class))
+                , false, !isLongPolling(fetchingDto));
+    }
+
+    /**
+     * Response is parsed inside the engine call, so its slot of {@link EngineCallGuard} and its endpoint are held
+     * till the whole body is read and parse error is reported as the call result
+     */
+    @Override
+    public int fetchAndLock(FetchExternalTasksDto fetchingDto, Consumer<LockedExternalTaskDto> taskConsumer) throws CamundaRestException {
+        // на другой узел можно уйти только до начала разбора ответа
+        return execute(url -> readTasks(executeMethod(createFetchRequest(url, fetchingDto)), taskConsumer)
+                , false, !isLongPolling(fetchingDto));
+    }
+
+    private int readTasks(InputStream json, Consumer<LockedExternalTaskDto> taskConsumer) throws CamundaRestException, IOException {
+        try (InputStream stream = json; JsonParser parser = objectMapper.getFactory().createParser(stream)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new CamundaRestException("Unexpected fetchAndLock response, array is expected but was " + token);
+            }
+
+            // таски читаются по одной, следующая ещё не разобрана, пока предыдущая уходит дальше
+            ObjectReader taskReader = objectMapper.readerFor(LockedExternalTaskDto.class);
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LockedExternalTaskDto task = taskReader.readValue(parser);
+                taskConsumer.accept(task);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public void complete(String taskId, CompleteExternalTaskDto dto) throws CamundaRestException {
+        executeAbstractMethod(taskId, "complete", dto);
+    }
+
+    @Override
+    public void fail(String taskId, ExternalTaskFailureDto dto) throws CamundaRestException {
+        executeAbstractMethod(taskId, "failure", dto);
+    }
+
+    @Override
+    public void extendLock(String taskId, ExtendLockOnExternalTaskDto dto) throws CamundaRestException {
+        executeAbstractMethod(taskId, "extendLock", dto);
+    }
+
+    /**
+     * @param limited call is subject to concurrency limit of {@link EngineCallGuard}
+     */
+    private <T> T execute(EngineEndpointSelector.EngineCall<T> call, boolean idempotent, boolean limited) throws CamundaRestException {
+        if (callGuard != null) {
+            return callGuard.execute(() -> executeOnEngine(call, idempotent), limited);
+        }
+        return executeOnEngine(call, idempotent);
+    }
+
+    private <T> T executeOnEngine(EngineEndpointSelector.EngineCall<T> call, boolean idempotent) throws CamundaRestException {
+        if (endpointSelector != null) {
+            return endpointSelector.execute(call, idempotent);
+        }
         try {
-            String requestJson = objectMapper.writeValueAsString(fetchingDto);
-            StringEntity entity = new StringEntity(requestJson);
-            post.setEntity(entity);
-            post.setHeader(HttpHeaders.CONTENT_TYPE, "application/json");
-            return executeAbstractMethod(post, objectMapper.getTypeFactory().constructCollectionType(LinkedList.class, LockedExternalTaskDto.class));
+            return call.call(engineUrl);
         } catch (CamundaRestException cre) {
             throw cre;
         } catch (Exception ex) {
@@ -96,14 +179,24 @@ public class ExternalTaskRestServiceImpl implements ExternalTaskRestService {
         }
     }
 
-    @Override
-    public void complete(String taskId, CompleteExternalTaskDto dto) throws CamundaRestException {
-        executeAbstractMethod(makeTaskUrl(taskId, "complete"), dto);
+    private static boolean isLongPolling(FetchExternalTasksDto fetchingDto) {
+        return fetchingDto instanceof FetchExternalTasksExtendedDto
+                && ((FetchExternalTasksExtendedDto) fetchingDto).getAsyncResponseTimeout() != null;
     }
 
-    @Override
-    public void fail(String taskId, ExternalTaskFailureDto dto) throws CamundaRestException {
-        executeAbstractMethod(makeTaskUrl(taskId, "failure"), dto);
+    private HttpPost createFetchRequest(String url, FetchExternalTasksDto fetchingDto) throws IOException {
+        HttpPost post = new HttpPost(makeTaskUrl(url, FETCH_AND_LOCK_TASKS));
+        post.setEntity(JsonEntity.create(objectWriter, fetchingDto, compressionMinSize));
+        if (fetchingDto instanceof FetchExternalTasksExtendedDto) {
+            Long asyncResponseTimeout = ((FetchExternalTasksExtendedDto) fetchingDto).getAsyncResponseTimeout();
+            if (asyncResponseTimeout != null) {
+                // engine holds long polling request up to asyncResponseTimeout, so socket must wait longer
+                post.setConfig(RequestConfig.copy(requestConfig == null ? RequestConfig.DEFAULT : requestConfig)
+                        .setSocketTimeout(Math.toIntExact(asyncResponseTimeout + asyncResponseTimeoutMargin))
+                        .build());
+            }
+        }
+        return post;
     }
 
     private <T> T executeAbstractMethod(HttpUriRequest request, JavaType type) throws CamundaRestException, IOException {
@@ -112,41 +205,34 @@ public class ExternalTaskRestServiceImpl implements ExternalTaskRestService {
 
     private InputStream executeMethod(HttpUriRequest request) throws CamundaRestException, IOException {
         HttpResponse response = httpClient.execute(request);
-        StringWriter stringWriter = new StringWriter();
         int statusCode = response.getStatusLine().getStatusCode();
         if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_NO_CONTENT) {
-            if (response.getEntity() != null
-                    && response.getEntity().getContent() != null) {
-                IOUtils.copy(response.getEntity().getContent(), stringWriter);
-            }
-            throw CamundaRestException.fromCodeAndResponse(statusCode, stringWriter.toString());
+            throw CamundaRestException.fromCodeAndResponse(statusCode, toString(response));
         }
         return response.getEntity().getContent();
     }
 
-    private <T> void executeAbstractMethod(String url, T data) throws CamundaRestException {
-        HttpPost post = new HttpPost(url);
-        try {
-            String requestJson = objectMapper.writeValueAsString(data);
-            StringEntity entity = new StringEntity(requestJson, ContentType.APPLICATION_JSON);
-            post.setEntity(entity);
+    private <T> void executeAbstractMethod(String taskId, String action, T data) throws CamundaRestException {
+        execute(url -> {
+            HttpPost post = new HttpPost(makeTaskUrl(url, taskId, action));
+            post.setEntity(JsonEntity.create(objectWriter, data, compressionMinSize));
             executeAbstractMethod(post);
-        } catch (Exception ex) {
-            throw new CamundaRestException(ex);
-        }
+            return null;
+        }, false, true);
     }
 
     private void executeAbstractMethod(HttpUriRequest request) throws CamundaRestException, IOException {
         HttpResponse response = httpClient.execute(request);
-        StringWriter stringWriter = new StringWriter();
         int statusCode = response.getStatusLine().getStatusCode();
-        if (response.getEntity() != null
-                && response.getEntity().getContent() != null) {
-            IOUtils.copy(response.getEntity().getContent(), stringWriter);
-        }
         if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_NO_CONTENT) {
-            throw CamundaRestException.fromCodeAndResponse(statusCode, stringWriter.toString());
+            throw CamundaRestException.fromCodeAndResponse(statusCode, toString(response));
         }
+        // тело успешного ответа не нужно, соединение просто возвращается в пул
+        EntityUtils.consume(response.getEntity());
+    }
+
+    private static String toString(HttpResponse response) throws IOException {
+        return response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
     }
 
     private <T> T unmarshallToObject(InputStream json, JavaType type) throws IOException {
@@ -157,11 +243,11 @@ public class ExternalTaskRestServiceImpl implements ExternalTaskRestService {
         }
     }
 
-    private String makeTaskUrl(String taskId, String action) {
+    private static String makeTaskUrl(String engineUrl, String taskId, String action) {
         return engineUrl + "/" + EXTERNAL_TASK + "/" + taskId + "/" + action;
     }
 
-    private String makeTaskUrl(String action) {
+    private static String makeTaskUrl(String engineUrl, String action) {
         return engineUrl + "/" + EXTERNAL_TASK + "/" + action;
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request entity serializing value straight to the connection output stream, without intermediate String.
+ * Length isn't known in advance, so request is sent chunked
+ */
+public class JsonEntity extends AbstractHttpEntity {
+
+    private final ObjectWriter writer;
+
+    private final Object value;
+
+    /**
+     * @param writer must not close target stream, see {@link com.fasterxml.jackson.core.JsonGenerator.Feature#AUTO_CLOSE_TARGET}
+     */
+    public JsonEntity(ObjectWriter writer, Object value) {
+        this.writer = writer;
+        this.value = value;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    /**
+     * Body longer than {@code compressionMinSize} is gzipped on the fly. To find it out value is rendered into
+     * buffer of that size, so only short body is serialized twice and long one is never held in memory.
+     * Engine must accept {@code Content-Encoding: gzip} requests, e.g. by servlet filter or reverse proxy
+     *
+     * @param compressionMinSize negative value disables compression
+     */
+    public static HttpEntity create(ObjectWriter writer, Object value, int compressionMinSize) throws IOException {
+        if (compressionMinSize < 0) {
+            return new JsonEntity(writer, value);
+        }
+
+        SizeProbe probe = new SizeProbe(compressionMinSize);
+        try {
+            writer.writeValue(probe, value);
+        } catch (IOException | RuntimeException e) {
+            // Jackson может завернуть исключение буфера в свое
+            if (!probe.exceeded) {
+                throw e;
+            }
+        }
+        if (probe.exceeded) {
+            return new GzipCompressingEntity(new JsonEntity(writer, value));
+        }
+        return new ByteArrayEntity(probe.toByteArray(), ContentType.APPLICATION_JSON);
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * Renders value into memory, used only when entity is read instead of written, e.g. for logging
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        writer.writeValue(outStream, value);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Buffer failing as soon as content exceeds its size
+     */
+    private static class SizeProbe extends ByteArrayOutputStream {
+
+        private final int maxSize;
+
+        private boolean exceeded;
+
+        private SizeProbe(int maxSize) {
+            super(Math.min(maxSize, 8192) + 1);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) {
+            checkSize(1);
+            super.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            checkSize(len);
+            super.write(b, off, len);
+        }
+
+        private void checkSize(int len) {
+            if (count + len > maxSize) {
+                exceeded = true;
+                throw new IllegalStateException("Body is longer than " + maxSize);
+            }
+        }
+    }
+}
@@ -18,38 +18,52 @@ package com.ae.camunda.dispatcher.runtime.service;
 
 import com.ae.camunda.dispatcher.api.service.SignalRestService;
 import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.PartialSignalException;
+import com.ae.camunda.dispatcher.util.ThreadUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.http.HttpHeaders;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.camunda.bpm.engine.rest.dto.SignalDto;
+import org.camunda.bpm.engine.rest.dto.message.CorrelationMessageDto;
 import org.camunda.bpm.engine.rest.dto.runtime.ExecutionDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
-import java.io.IOException;
-import java.net.URISyntaxException;
+import javax.annotation.PreDestroy;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(name = "camunda.dispatcher.runtime.engine.mode", havingValue = "rest", matchIfMissing = true)
 public class SignalRestServiceImpl implements SignalRestService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SignalRestServiceImpl.class);
@@ -57,74 +71,256 @@ public class SignalRestServiceImpl implements SignalRestService {
     @Value("${camunda.dispatcher.runtime.engine-url}")
     private String engineUrl;
 
-    @Value("${camunda.dispatcher.runtime.engine.user:}")
-    private String camundaUser;
+    /**
+     * Request body longer than this is gzipped, -1 disables compression
+     */
+    @Value("${camunda.dispatcher.runtime.engine.http.compression.request-min-size:-1}")
+    private int compressionMinSize = -1;
 
-    @Value("${camunda.dispatcher.runtime.engine.pass:}")
-    private String camundaPass;
+    /**
+     * Max count of executions signalled at once by all listener threads, 1 signals them one by one
+     */
+    @Value("${camunda.dispatcher.runtime.signal.fan-out.parallelism:8}")
+    private int fanOutParallelism = 8;
+
+    @Value("${camunda.dispatcher.runtime.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService fanOutExecutor;
+
+    /**
+     * How long looked up executions are reused for the same business key and signal, 0 disables cache.
+     * It pays off when executions stay subscribed after signal, e.g. at non-interrupting events
+     */
+    @Value("${camunda.dispatcher.runtime.signal.execution-cache.ttl:0}")
+    private long executionCacheTtl;
+
+    @Value("${camunda.dispatcher.runtime.signal.execution-cache.max-size:10000}")
+    private long executionCacheMaxSize = 10000;
+
+    private Cache<Pair<String, String>, List<String>> executionCache;
 
     private ObjectMapper objectMapper;
 
+    private ObjectWriter objectWriter;
+
+    @Autowired
     private CloseableHttpClient httpClient;
 
+    @Autowired(required = false)
+    private EngineEndpointSelector endpointSelector;
+
+    @Autowired(required = false)
+    private EngineCallGuard callGuard;
+
     @PostConstruct
     public void init() {
         objectMapper = new ObjectMapper();
-        final HttpClientBuilder clientBuilder = HttpClientBuilder.create();
-        if (StringUtils.hasText(camundaUser)) {
-            final BasicCredentialsProvider provider = new BasicCredentialsProvider();
-            provider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(camundaUser, camundaPass));
-            clientBuilder.setDefaultCredentialsProvider(provider);
+        objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (executionCacheTtl > 0) {
+            executionCache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(executionCacheTtl, TimeUnit.MILLISECONDS)
+                    .maximumSize(executionCacheMaxSize)
+                    .build();
+            LOG.info("Signal execution cache is enabled with TTL [{}ms]", executionCacheTtl);
+        }
+        if (fanOutParallelism > 1) {
+            fanOutExecutor = Executors.newFixedThreadPool(fanOutParallelism
+                    , ThreadUtils.createThreadFactory("signal-fan-out-", virtualThreads));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
         }
-        httpClient = clientBuilder.build();
     }
 
     @Override
     public void fire(String businessKey, SignalDto signal) throws CamundaRestException {
         LOG.debug("Firing signal [{}] for businessKey [{}]", signal.getName(), businessKey);
 
-        final List<String> executions = findExecutionByBusinessKeyAndSignalEventSubscriptionName(businessKey, signal.getName())
+        final Pair<String, String> key = Pair.of(businessKey, signal.getName());
+        List<String> executions = executionCache == null ? null : executionCache.getIfPresent(key);
+        if (executions == null) {
+            executions = findActiveExecutions(businessKey, signal.getName(), Collections.emptySet());
+            fire(signal, executions);
+            return;
+        }
+
+        LOG.debug("Cached active executions for businessKey [{}]: {}", businessKey, executions);
+        try {
+            fire(signal, executions);
+        } catch (CamundaRestException e) {
+            if (!isStaleSubscription(e)) {
+                throw e;
+            }
+
+            // кэш устарел: ищем execution заново, уже получившие сигнал не трогаем
+            LOG.debug("Cached executions of businessKey [{}] are stale, cause: {}", businessKey, e.getMessage());
+            executionCache.invalidate(key);
+            final Set<String> signalled = new HashSet<>();
+            if (e instanceof PartialSignalException) {
+                signalled.addAll(executions);
+                signalled.removeAll(((PartialSignalException) e).getFailedExecutionIds());
+            }
+            final List<String> rest;
+            try {
+                rest = findActiveExecutions(businessKey, signal.getName(), signalled);
+            } catch (CamundaRestException notFound) {
+                if (notFound.getHttpCode() == HttpStatus.SC_NOT_FOUND && !signalled.isEmpty()) {
+                    return;
+                }
+                throw notFound;
+            }
+            fire(signal, rest);
+        }
+    }
+
+    /**
+     * Looks executions up and puts them into cache
+     *
+     * @param excluded executions already signalled
+     * @throws CamundaRestException with 404 code if no execution waits for the signal
+     */
+    private List<String> findActiveExecutions(String businessKey, String signalName, Set<String> excluded) throws CamundaRestException {
+        final List<String> executions = findExecutionByBusinessKeyAndSignalEventSubscriptionName(businessKey, signalName)
                 .stream()
                 .filter(executionDto -> !executionDto.isEnded())
                 .map(ExecutionDto::getId)
                 .collect(Collectors.toList());
+        if (executionCache != null && !executions.isEmpty()) {
+            executionCache.put(Pair.of(businessKey, signalName), executions);
+        }
 
-        if (executions.isEmpty()) {
+        final List<String> result = executions.stream()
+                .filter(executionId -> !excluded.contains(executionId))
+                .collect(Collectors.toList());
+        if (result.isEmpty()) {
             throw CamundaRestException.fromCodeAndResponse(404, "There is no active execution with business key "
-                    + businessKey + " subscribed to signal event: " + signal.getName());
+                    + businessKey + " subscribed to signal event: " + signalName);
         } else {
-            LOG.debug("Found active executions for businessKey [{}]: {}", businessKey, executions);
+            LOG.debug("Found active executions for businessKey [{}]: {}", businessKey, result);
         }
+        return result;
+    }
 
-        for (String executionId : executions) {
-            final SignalDto dto = new SignalDto();
-            dto.setName(signal.getName());
-            dto.setVariables(signal.getVariables());
-            dto.setExecutionId(executionId);
+    /**
+     * Engine answers 404 to unknown execution and 400 to execution which has no such subscription anymore
+     */
+    private static boolean isStaleSubscription(CamundaRestException e) {
+        return e.getHttpCode() == HttpStatus.SC_NOT_FOUND || e.getHttpCode() == HttpStatus.SC_BAD_REQUEST;
+    }
 
-            throwSignal(dto);
+    @Override
+    public void fire(SignalDto signal, Collection<String> executionIds) throws CamundaRestException {
+        final Map<String, Exception> failures = new LinkedHashMap<>();
+        if (fanOutExecutor == null || executionIds.size() == 1) {
+            for (String executionId : executionIds) {
+                try {
+                    throwSignal(toExecutionSignal(signal, executionId));
+                } catch (CamundaRestException e) {
+                    failures.put(executionId, e);
+                }
+            }
+        } else {
+            // медленный вызов одной execution не задерживает остальные
+            final Map<String, Future<?>> futures = new LinkedHashMap<>();
+            for (String executionId : executionIds) {
+                futures.put(executionId, fanOutExecutor.submit(() -> {
+                    throwSignal(toExecutionSignal(signal, executionId));
+                    return null;
+                }));
+            }
+            CamundaRestException interrupted = null;
+            for (Future<?> future : futures.values()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // ошибки собираются ниже, когда завершены все вызовы
+                } catch (InterruptedException e) {
+                    // результата больше никто не ждёт: прерываем ещё не завершённые вызовы
+                    interrupted = new CamundaRestException("Wait for signal result is interrupted", e);
+                    futures.values().forEach(f -> f.cancel(true));
+                    break;
+                }
+            }
+            for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+                if (future.getValue().isCancelled()) {
+                    failures.put(future.getKey(), interrupted);
+                    continue;
+                }
+                try {
+                    Futures.getDone(future.getValue());
+                } catch (ExecutionException e) {
+                    failures.put(future.getKey(), e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+            }
+            if (interrupted != null) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        PartialSignalException.throwIfFailed(signal.getName(), executionIds.size(), failures);
+    }
+
+    private static SignalDto toExecutionSignal(SignalDto signal, String executionId) {
+        final SignalDto dto = new SignalDto();
+        dto.setName(signal.getName());
+        dto.setVariables(signal.getVariables());
+        dto.setExecutionId(executionId);
+        return dto;
+    }
+
+    @Override
+    public void correlate(String businessKey, SignalDto signal) throws CamundaRestException {
+        LOG.debug("Correlating message [{}] for businessKey [{}]", signal.getName(), businessKey);
+
+        final CorrelationMessageDto dto = new CorrelationMessageDto();
+        dto.setMessageName(signal.getName());
+        dto.setBusinessKey(businessKey);
+        dto.setProcessVariables(signal.getVariables());
+        dto.setAll(true);
+        // с all=true движок молча ничего не делает, если сообщение никто не ждёт, поэтому нужен результат
+        dto.setResultEnabled(true);
+
+        final int correlated = execute(url -> {
+            final HttpPost post = new HttpPost(url + "/message");
+            post.setEntity(JsonEntity.create(objectWriter, dto, compressionMinSize));
+            try (CloseableHttpResponse response = httpClient.execute(post)) {
+                if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                    throw CamundaRestException.fromCodeAndResponse(response.getStatusLine().getStatusCode()
+                            , EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+                }
+                return objectMapper.readTree(response.getEntity().getContent()).size();
+            }
+        }, false);
+
+        if (correlated == 0) {
+            throw CamundaRestException.fromCodeAndResponse(404, "There is no active execution with business key "
+                    + businessKey + " waiting for message: " + signal.getName());
         }
+        LOG.debug("Message [{}] is correlated to [{}] execution(-s) of businessKey [{}]", signal.getName(), correlated, businessKey);
     }
 
     private void throwSignal(final SignalDto dto) throws CamundaRestException {
-        try {
-            final HttpPost post = new HttpPost(engineUrl + "/signal");
-            post.setHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
-            post.setEntity(new StringEntity(objectMapper.writeValueAsString(dto)));
+        execute(url -> {
+            final HttpPost post = new HttpPost(url + "/signal");
+            post.setEntity(JsonEntity.create(objectWriter, dto, compressionMinSize));
             try (CloseableHttpResponse response = httpClient.execute(post)) {
                 if (response.getStatusLine().getStatusCode() != HttpStatus.SC_NO_CONTENT) {
                     throw CamundaRestException.fromCodeAndResponse(response.getStatusLine().getStatusCode()
                             , EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
                 }
             }
-        } catch (IOException e) {
-            throw new CamundaRestException(e);
-        }
+            return null;
+        }, false);
     }
 
     private List<ExecutionDto> findExecutionByBusinessKeyAndSignalEventSubscriptionName(String businessKey, String signalEventSubscriptionName) throws CamundaRestException {
-        try {
-            final URIBuilder uriBuilder = new URIBuilder(engineUrl + "/execution");
+        return execute(url -> {
+            final URIBuilder uriBuilder = new URIBuilder(url + "/execution");
             uriBuilder.addParameter("businessKey", businessKey);
             uriBuilder.addParameter("signalEventSubscriptionName", signalEventSubscriptionName);
             final HttpGet get = new HttpGet(uriBuilder.build());
@@ -137,7 +333,25 @@ public class SignalRestServiceImpl implements SignalRestService {
                             , EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
                 }
             }
-        } catch (IOException | URISyntaxException e) {
+        }, true);
+    }
+
+    private <T> T execute(EngineEndpointSelector.EngineCall<T> call, boolean idempotent) throws CamundaRestException {
+        if (callGuard != null) {
+            return callGuard.execute(() -> executeOnEngine(call, idempotent), true);
+        }
+        return executeOnEngine(call, idempotent);
+    }
+
+    private <T> T executeOnEngine(EngineEndpointSelector.EngineCall<T> call, boolean idempotent) throws CamundaRestException {
+        if (endpointSelector != null) {
+            return endpointSelector.execute(call, idempotent);
+        }
+        try {
+            return call.call(engineUrl);
+        } catch (CamundaRestException cre) {
+            throw cre;
+        } catch (Exception e) {
             throw new CamundaRestException(e);
         }
     }
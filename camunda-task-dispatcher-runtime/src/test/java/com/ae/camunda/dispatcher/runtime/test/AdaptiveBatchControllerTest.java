@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.runtime.processor.AdaptiveBatchController;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveBatchControllerTest {
+
+    @Test
+    public void testIncrease() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(10, 10, 25, 10, 0.5, 1000, 0, false);
+
+        controller.onResponse(10, 10, 10);
+        Assert.assertEquals(20, controller.getBatchSize());
+
+        // not full response keeps batch size
+        controller.onResponse(20, 5, 10);
+        Assert.assertEquals(20, controller.getBatchSize());
+
+        controller.onResponse(20, 20, 10);
+        Assert.assertEquals(25, controller.getBatchSize());
+    }
+
+    @Test
+    public void testDecrease() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(100, 10, 1000, 10, 0.5, 1000, 0, false);
+
+        controller.onResponse(100, 100, 5000);
+        Assert.assertEquals(50, controller.getBatchSize());
+
+        controller.onError();
+        Assert.assertEquals(25, controller.getBatchSize());
+
+        controller.onSaturation();
+        controller.onSaturation();
+        Assert.assertEquals(10, controller.getBatchSize());
+    }
+
+    @Test
+    public void testDecreaseInterval() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(100, 10, 1000, 10, 0.5, 1000, 60000, false);
+
+        controller.onSaturation();
+        controller.onSaturation();
+        Assert.assertEquals(50, controller.getBatchSize());
+    }
+
+    @Test
+    public void testLongPolling() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(100, 10, 1000, 10, 0.5, 1000, 0, true);
+
+        // engine waited for tasks, it's not slow
+        controller.onResponse(100, 1, 30000);
+        Assert.assertEquals(100, controller.getBatchSize());
+
+        controller.onResponse(100, 100, 30000);
+        Assert.assertEquals(50, controller.getBatchSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongBounds() {
+        new AdaptiveBatchController(10, 100, 10, 10, 0.5, 1000, 0, false);
+    }
+}
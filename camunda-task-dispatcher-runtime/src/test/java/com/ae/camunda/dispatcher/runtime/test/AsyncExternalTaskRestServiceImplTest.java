@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.runtime.service.AsyncExternalTaskRestServiceImpl;
+import com.ae.camunda.dispatcher.runtime.service.EngineEndpointSelector;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.util.ReflectionUtils;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncExternalTaskRestServiceImplTest {
+
+    private AsyncExternalTaskRestServiceImpl service;
+
+    @Mock
+    private HttpClient httpClient;
+
+    @Mock
+    private HttpResponse<byte[]> response;
+
+    @Before
+    public void init() {
+        service = new AsyncExternalTaskRestServiceImpl();
+
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(AsyncExternalTaskRestServiceImpl.class, "httpClient")
+                , service
+                , httpClient
+        );
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(AsyncExternalTaskRestServiceImpl.class, "engineUrl")
+                , service
+                , "http://localhost:8080/engine-rest"
+        );
+        service.init();
+    }
+
+    @Test
+    public void testCompleteNoContentGzip() throws Exception {
+        Mockito.when(response.statusCode()).thenReturn(204);
+        Mockito.when(response.body()).thenReturn(new byte[0]);
+        Mockito.when(response.headers()).thenReturn(HttpHeaders.of(
+                Map.of("Content-Encoding", List.of("gzip")), (name, value) -> true));
+        Mockito.when(httpClient.<byte[]>sendAsync(Mockito.any(), Mockito.any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        service.completeAsync("taskId", new CompleteExternalTaskDto()).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCompleteInvalidUrl() throws Exception {
+        EngineEndpointSelector endpointSelector = new EngineEndpointSelector("http://localhost:8080/engine-rest", 3, 30000, 3);
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(AsyncExternalTaskRestServiceImpl.class, "endpointSelector")
+                , service
+                , endpointSelector
+        );
+
+        // ошибка адреса возвращается в future, а не бросается вызывающему
+        CompletableFuture<Void> future = service.completeAsync("task id", new CompleteExternalTaskDto());
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            Assert.fail("Invalid URL must fail the call");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof CamundaRestException);
+        }
+        Assert.assertEquals(0, endpointSelector.getEndpoints().get(0).getOutstanding());
+        Mockito.verifyNoInteractions(httpClient);
+    }
+}
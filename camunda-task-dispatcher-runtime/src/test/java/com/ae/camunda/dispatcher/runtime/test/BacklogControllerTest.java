@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.api.sender.BacklogProbe;
+import com.ae.camunda.dispatcher.runtime.processor.BacklogController;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BacklogControllerTest {
+
+    private static final String TOPIC = "topic";
+
+    private static final List<String> TOPICS = Collections.singletonList(TOPIC);
+
+    @Test
+    public void testWatermarks() {
+        AtomicLong backlog = new AtomicLong(0);
+        BacklogController controller = new BacklogController(topicName -> backlog.get(), 100, 10, 0);
+
+        controller.refresh(TOPICS);
+        Assert.assertFalse(controller.isPaused(TOPIC));
+        Assert.assertEquals(50, controller.limitBatch(TOPICS, 50));
+
+        backlog.set(55);
+        controller.refresh(TOPICS);
+        Assert.assertFalse(controller.isPaused(TOPIC));
+        Assert.assertEquals(25, controller.limitBatch(TOPICS, 50));
+
+        backlog.set(100);
+        controller.refresh(TOPICS);
+        Assert.assertTrue(controller.isPaused(TOPIC));
+
+        // stays paused until low watermark is reached
+        backlog.set(50);
+        controller.refresh(TOPICS);
+        Assert.assertTrue(controller.isPaused(TOPIC));
+
+        backlog.set(10);
+        controller.refresh(TOPICS);
+        Assert.assertFalse(controller.isPaused(TOPIC));
+        Assert.assertEquals(50, controller.limitBatch(TOPICS, 50));
+    }
+
+    @Test
+    public void testUnknownBacklog() {
+        AtomicLong backlog = new AtomicLong(1000);
+        BacklogController controller = new BacklogController(topicName -> backlog.get(), 100, 10, 0);
+
+        controller.refresh(TOPICS);
+        Assert.assertTrue(controller.isPaused(TOPIC));
+
+        backlog.set(BacklogProbe.UNKNOWN);
+        controller.refresh(TOPICS);
+        Assert.assertFalse(controller.isPaused(TOPIC));
+        Assert.assertEquals(50, controller.limitBatch(TOPICS, 50));
+    }
+
+    @Test
+    public void testRefreshInterval() {
+        AtomicLong requests = new AtomicLong();
+        BacklogController controller = new BacklogController(topicName -> requests.incrementAndGet(), 100, 10, 60000);
+
+        controller.refresh(TOPICS);
+        controller.refresh(TOPICS);
+
+        Assert.assertEquals(1, requests.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongWatermarks() {
+        new BacklogController(topicName -> 0, 10, 100, 0);
+    }
+}
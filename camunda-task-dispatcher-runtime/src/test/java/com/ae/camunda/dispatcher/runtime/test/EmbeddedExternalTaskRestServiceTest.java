@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.runtime.service.EmbeddedExternalTaskRestService;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+@Deployment(resources = {"simple_diagram.bpmn"})
+public class EmbeddedExternalTaskRestServiceTest {
+
+    private static final String WORKER = "worker";
+
+    @Rule
+    public ProcessEngineRule processEngineRule = new ProcessEngineRule("camunda.cfg.xml");
+
+    private ProcessEngine processEngine;
+
+    private EmbeddedExternalTaskRestService service;
+
+    private ProcessInstance processInstance;
+
+    @Before
+    public void init() {
+        processEngine = processEngineRule.getProcessEngine();
+        processInstance = processEngine.getRuntimeService()
+                .startProcessInstanceByKey("Simple_Process", Collections.singletonMap("stringVar", "string"));
+
+        service = new EmbeddedExternalTaskRestService();
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(EmbeddedExternalTaskRestService.class, "processEngine")
+                , service
+                , processEngine
+        );
+    }
+
+    @Test
+    public void testFetchAndComplete() throws CamundaRestException {
+        List<LockedExternalTaskDto> tasks = service.fetchAndLock(createFetchDto());
+
+        Assert.assertEquals(1, tasks.size());
+        Assert.assertEquals("simpleCommand", tasks.get(0).getTopicName());
+        Assert.assertEquals("string", tasks.get(0).getVariables().get("stringVar").getValue());
+
+        VariableValueDto result = new VariableValueDto();
+        result.setType("String");
+        result.setValue("done");
+        CompleteExternalTaskDto dto = new CompleteExternalTaskDto();
+        dto.setWorkerId(WORKER);
+        dto.setVariables(Collections.singletonMap("result", result));
+        service.complete(tasks.get(0).getId(), dto);
+
+        Assert.assertEquals(0, processEngine.getRuntimeService().createProcessInstanceQuery()
+                .processInstanceId(processInstance.getId()).count());
+        Assert.assertEquals("done", processEngine.getHistoryService().createHistoricVariableInstanceQuery()
+                .processInstanceId(processInstance.getId()).variableName("result").singleResult().getValue());
+    }
+
+    @Test
+    public void testFail() throws CamundaRestException {
+        List<LockedExternalTaskDto> tasks = service.fetchAndLock(createFetchDto());
+
+        ExternalTaskFailureDto dto = new ExternalTaskFailureDto();
+        dto.setWorkerId(WORKER);
+        dto.setErrorMessage("error");
+        dto.setRetries(0);
+        service.fail(tasks.get(0).getId(), dto);
+
+        Assert.assertEquals("error", processEngine.getExternalTaskService().createExternalTaskQuery()
+                .externalTaskId(tasks.get(0).getId()).singleResult().getErrorMessage());
+        Assert.assertTrue(service.fetchAndLock(createFetchDto()).isEmpty());
+    }
+
+    @Test
+    public void testCompleteUnknownTask() {
+        CompleteExternalTaskDto dto = new CompleteExternalTaskDto();
+        dto.setWorkerId(WORKER);
+        try {
+            service.complete("unknown", dto);
+            Assert.fail("Exception is expected");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(404, e.getHttpCode());
+            Assert.assertTrue(e.isClientError());
+        }
+    }
+
+    private static FetchExternalTasksDto createFetchDto() {
+        FetchExternalTasksDto.FetchExternalTaskTopicDto topicDto = new FetchExternalTasksDto.FetchExternalTaskTopicDto();
+        topicDto.setTopicName("simpleCommand");
+        topicDto.setLockDuration(10000);
+        topicDto.setVariables(Collections.singletonList("stringVar"));
+
+        FetchExternalTasksDto dto = new FetchExternalTasksDto();
+        dto.setWorkerId(WORKER);
+        dto.setMaxTasks(10);
+        dto.setTopics(Collections.singletonList(topicDto));
+        return dto;
+    }
+}
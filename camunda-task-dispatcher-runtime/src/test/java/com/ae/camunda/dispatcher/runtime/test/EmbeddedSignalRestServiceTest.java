@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.PartialSignalException;
+import com.ae.camunda.dispatcher.runtime.service.EmbeddedSignalRestService;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.rest.dto.SignalDto;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@Deployment(resources = {"message_diagram.bpmn"})
+public class EmbeddedSignalRestServiceTest {
+
+    private static final String BUSINESS_KEY = "businessKey";
+
+    @Rule
+    public ProcessEngineRule processEngineRule = new ProcessEngineRule("camunda.cfg.xml");
+
+    private ProcessEngine processEngine;
+
+    private EmbeddedSignalRestService service;
+
+    @Before
+    public void init() {
+        processEngine = processEngineRule.getProcessEngine();
+
+        service = new EmbeddedSignalRestService();
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(EmbeddedSignalRestService.class, "processEngine")
+                , service
+                , processEngine
+        );
+    }
+
+    @Test
+    public void testCorrelate() throws CamundaRestException {
+        ProcessInstance first = processEngine.getRuntimeService().startProcessInstanceByKey("Message_Process", BUSINESS_KEY);
+        ProcessInstance second = processEngine.getRuntimeService().startProcessInstanceByKey("Message_Process", BUSINESS_KEY);
+        ProcessInstance other = processEngine.getRuntimeService().startProcessInstanceByKey("Message_Process", "other");
+
+        service.correlate(BUSINESS_KEY, createSignal());
+
+        Assert.assertEquals("done", processEngine.getRuntimeService().getVariable(first.getId(), "result"));
+        Assert.assertEquals("done", processEngine.getRuntimeService().getVariable(second.getId(), "result"));
+        Assert.assertNull(processEngine.getRuntimeService().getVariable(other.getId(), "result"));
+    }
+
+    @Test
+    public void testCorrelateNothingWaits() {
+        try {
+            service.correlate(BUSINESS_KEY, createSignal());
+            Assert.fail("Correlation without waiting executions must fail");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(404, e.getHttpCode());
+        }
+    }
+
+    @Test
+    public void testFire() throws CamundaRestException {
+        ProcessInstance first = processEngine.getRuntimeService().startProcessInstanceByKey("Signal_Process", BUSINESS_KEY);
+        ProcessInstance second = processEngine.getRuntimeService().startProcessInstanceByKey("Signal_Process", BUSINESS_KEY);
+
+        service.fire(BUSINESS_KEY, createSignal());
+
+        Assert.assertEquals("done", processEngine.getRuntimeService().getVariable(first.getId(), "result"));
+        Assert.assertEquals("done", processEngine.getRuntimeService().getVariable(second.getId(), "result"));
+    }
+
+    @Test
+    public void testFirePartialFailure() {
+        ProcessInstance instance = processEngine.getRuntimeService().startProcessInstanceByKey("Signal_Process", BUSINESS_KEY);
+        String executionId = processEngine.getRuntimeService().createExecutionQuery()
+                .processInstanceId(instance.getId())
+                .signalEventSubscriptionName("simpleSignal")
+                .singleResult()
+                .getId();
+
+        try {
+            service.fire(createSignal(), Arrays.asList(executionId, "unknown"));
+            Assert.fail("Signal of unknown execution must fail");
+        } catch (PartialSignalException e) {
+            Assert.assertEquals(Collections.singletonList("unknown"), e.getFailedExecutionIds());
+        } catch (CamundaRestException e) {
+            Assert.fail("Partial failure is expected, but was: " + e.getMessage());
+        }
+        Assert.assertEquals("done", processEngine.getRuntimeService().getVariable(instance.getId(), "result"));
+    }
+
+    private static SignalDto createSignal() {
+        VariableValueDto result = new VariableValueDto();
+        result.setType("String");
+        result.setValue("done");
+
+        SignalDto signal = new SignalDto();
+        signal.setName("simpleSignal");
+        signal.setVariables(Collections.singletonMap("result", result));
+        return signal;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.api.service.EngineAvailabilityEvent;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.runtime.service.EngineCallGuard;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class EngineCallGuardTest {
+
+    private EngineCallGuard guard;
+
+    @After
+    public void tearDown() {
+        if (guard != null) {
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws CamundaRestException {
+        guard = new EngineCallGuard(2, 1, 10, 1.5, 0.2, 0, 5, 60000, 1);
+
+        EngineCallGuard.Permit first = guard.acquire(true);
+        guard.acquire(true);
+        try {
+            guard.acquire(true);
+            Assert.fail("Call over the limit must be rejected");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(503, e.getHttpCode());
+            Assert.assertTrue(CamundaRestException.isRetryable(e));
+        }
+
+        // long polling isn't limited
+        guard.release(guard.acquire(false), null);
+
+        guard.release(first, null);
+        Assert.assertEquals(1, guard.getInFlight());
+        guard.acquire(true);
+    }
+
+    @Test
+    public void testLimitDecreaseOnFailure() throws CamundaRestException {
+        guard = new EngineCallGuard(10, 1, 10, 1.5, 0.2, 0, 100, 60000, 1);
+
+        for (int i = 0; i < 10; ++i) {
+            guard.release(guard.acquire(true), new IOException("Read timed out"));
+        }
+        Assert.assertTrue(guard.getLimit() < 10);
+        Assert.assertEquals(EngineCallGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        guard = new EngineCallGuard(10, 1, 10, 1.5, 0.2, 0, 2, 100, 1);
+        BlockingQueue<EngineAvailabilityEvent> events = new LinkedBlockingQueue<>();
+        guard.setEventPublisher(event -> events.add((EngineAvailabilityEvent) event));
+
+        // ответ движка, пусть и ошибочный, значит что он жив
+        guard.release(guard.acquire(true), CamundaRestException.fromCodeAndResponse(404, "Not found"));
+        guard.release(guard.acquire(true), CamundaRestException.fromCodeAndResponse(503, "Unavailable"));
+        Assert.assertEquals(EngineCallGuard.State.CLOSED, guard.getState());
+        guard.release(guard.acquire(true), new IOException("Connection refused"));
+        Assert.assertEquals(EngineCallGuard.State.OPEN, guard.getState());
+
+        try {
+            guard.execute(() -> "never", false);
+            Assert.fail("Open breaker must reject calls");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(503, e.getHttpCode());
+        }
+
+        EngineAvailabilityEvent unavailable = events.poll(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(unavailable);
+        Assert.assertFalse(unavailable.isAvailable());
+
+        EngineAvailabilityEvent available = events.poll(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(available);
+        Assert.assertTrue(available.isAvailable());
+        Assert.assertEquals(EngineCallGuard.State.HALF_OPEN, guard.getState());
+
+        // пробный вызов один, остальные ждут его результата
+        EngineCallGuard.Permit trial = guard.acquire(true);
+        try {
+            guard.acquire(true);
+            Assert.fail("Only one trial call is allowed");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(503, e.getHttpCode());
+        }
+        guard.release(trial, null);
+        Assert.assertEquals(EngineCallGuard.State.CLOSED, guard.getState());
+        Assert.assertEquals("ok", guard.execute(() -> "ok", true));
+    }
+
+    @Test
+    public void testHalfOpenLongPolling() throws Exception {
+        guard = new EngineCallGuard(10, 1, 10, 1.5, 0.2, 0, 1, 50, 1);
+        guard.release(guard.acquire(true), new IOException("Connection refused"));
+        waitForState(EngineCallGuard.State.HALF_OPEN);
+
+        // long polling тоже пробный вызов и занимает единственный слот
+        EngineCallGuard.Permit trial = guard.acquire(false);
+        try {
+            guard.acquire(false);
+            Assert.fail("Only one trial call is allowed");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(503, e.getHttpCode());
+        }
+        try {
+            guard.acquire(true);
+            Assert.fail("Only one trial call is allowed");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(503, e.getHttpCode());
+        }
+
+        guard.release(trial, new IOException("Connection refused"));
+        Assert.assertEquals(EngineCallGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    public void testStaleResult() throws Exception {
+        guard = new EngineCallGuard(10, 1, 10, 1.5, 0.2, 0, 1, 50, 1);
+        EngineCallGuard.Permit stale = guard.acquire(true);
+        EngineCallGuard.Permit staleFailure = guard.acquire(true);
+        guard.release(guard.acquire(true), new IOException("Connection refused"));
+        Assert.assertEquals(EngineCallGuard.State.OPEN, guard.getState());
+        waitForState(EngineCallGuard.State.HALF_OPEN);
+
+        // вызовы, начатые до открытия, не закрывают и не открывают автомат
+        EngineCallGuard.Permit trial = guard.acquire(true);
+        guard.release(stale, null);
+        Assert.assertEquals(EngineCallGuard.State.HALF_OPEN, guard.getState());
+        guard.release(staleFailure, new IOException("Connection refused"));
+        Assert.assertEquals(EngineCallGuard.State.HALF_OPEN, guard.getState());
+        Assert.assertEquals(1, guard.getInFlight());
+
+        guard.release(trial, null);
+        Assert.assertEquals(EngineCallGuard.State.CLOSED, guard.getState());
+        Assert.assertEquals(0, guard.getInFlight());
+    }
+
+    private void waitForState(EngineCallGuard.State state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (guard.getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(state, guard.getState());
+    }
+}
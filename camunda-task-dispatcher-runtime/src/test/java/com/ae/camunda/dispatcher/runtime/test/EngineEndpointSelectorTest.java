@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.runtime.service.EngineEndpointSelector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class EngineEndpointSelectorTest {
+
+    private static final String FIRST = "http://first/engine-rest";
+
+    private static final String SECOND = "http://second/engine-rest";
+
+    @Test
+    public void testParse() {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST + "/, " + SECOND + ",", 3, 1000, 3);
+
+        Assert.assertEquals(2, selector.getEndpoints().size());
+        Assert.assertEquals(FIRST, selector.getEndpoints().get(0).getUrl());
+        Assert.assertEquals(SECOND, selector.getEndpoints().get(1).getUrl());
+    }
+
+    @Test
+    public void testLeastOutstanding() {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST + "," + SECOND, 3, 1000, 3);
+
+        EngineEndpointSelector.Endpoint busy = selector.acquire(Collections.emptyList());
+        for (int i = 0; i < 10; ++i) {
+            EngineEndpointSelector.Endpoint endpoint = selector.acquire(Collections.emptyList());
+            Assert.assertNotEquals(busy.getUrl(), endpoint.getUrl());
+            selector.release(endpoint, null);
+        }
+        selector.release(busy, null);
+        Assert.assertEquals(0, busy.getOutstanding());
+    }
+
+    @Test
+    public void testEjection() {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST + "," + SECOND, 2, 60000, 3);
+        EngineEndpointSelector.Endpoint first = selector.getEndpoints().get(0);
+
+        for (int i = 0; i < 2; ++i) {
+            EngineEndpointSelector.Endpoint endpoint = selector.acquire(Collections.singletonList(selector.getEndpoints().get(1)));
+            selector.release(endpoint, new IOException("Connection reset"));
+        }
+
+        Assert.assertTrue(first.isEjected());
+        for (int i = 0; i < 10; ++i) {
+            EngineEndpointSelector.Endpoint endpoint = selector.acquire(Collections.emptyList());
+            Assert.assertEquals(SECOND, endpoint.getUrl());
+            selector.release(endpoint, null);
+        }
+        // выброшенный узел используется, если других нет
+        EngineEndpointSelector.Endpoint endpoint = selector.acquire(Collections.singletonList(selector.getEndpoints().get(1)));
+        Assert.assertEquals(FIRST, endpoint.getUrl());
+    }
+
+    @Test
+    public void testClientErrorIsNotNodeFailure() {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST, 1, 60000, 3);
+        EngineEndpointSelector.Endpoint endpoint = selector.acquire(Collections.emptyList());
+        selector.release(endpoint, CamundaRestException.fromCodeAndResponse(404, "not found"));
+
+        Assert.assertFalse(endpoint.isEjected());
+    }
+
+    @Test
+    public void testRetryIdempotent() throws CamundaRestException {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST + "," + SECOND, 3, 1000, 3);
+        List<String> calls = new ArrayList<>();
+
+        String result = selector.execute(url -> {
+            calls.add(url);
+            if (calls.size() == 1) {
+                throw new IOException("Read timed out");
+            }
+            return url;
+        }, true);
+
+        Assert.assertEquals(2, calls.size());
+        Assert.assertNotEquals(calls.get(0), calls.get(1));
+        Assert.assertEquals(calls.get(1), result);
+    }
+
+    @Test
+    public void testRetryNotSent() throws CamundaRestException {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST + "," + SECOND, 3, 1000, 3);
+        List<String> calls = new ArrayList<>();
+
+        selector.execute(url -> {
+            calls.add(url);
+            if (calls.size() == 1) {
+                throw new ConnectException("Connection refused");
+            }
+            return null;
+        }, false);
+
+        Assert.assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void testNoRetry() {
+        EngineEndpointSelector selector = new EngineEndpointSelector(FIRST + "," + SECOND, 3, 1000, 3);
+        List<String> calls = new ArrayList<>();
+
+        try {
+            selector.execute(url -> {
+                calls.add(url);
+                throw new IOException("Read timed out");
+            }, false);
+            Assert.fail("Exception is expected");
+        } catch (CamundaRestException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        Assert.assertEquals(1, calls.size());
+
+        try {
+            selector.execute(url -> {
+                throw CamundaRestException.fromCodeAndResponse(400, "bad request");
+            }, true);
+            Assert.fail("Exception is expected");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(400, e.getHttpCode());
+        }
+    }
+}
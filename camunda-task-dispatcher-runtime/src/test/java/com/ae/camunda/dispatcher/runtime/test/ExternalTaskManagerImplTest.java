@@ -22,12 +22,15 @@ import com.ae.camunda.dispatcher.model.EntityMetadata;
 import com.ae.camunda.dispatcher.runtime.manager.ExternalTaskManagerImpl;
 import com.ae.camunda.dispatcher.runtime.test.command.Command;
 import com.ae.camunda.dispatcher.runtime.test.command.WrongCommand;
+import com.ae.camunda.dispatcher.runtime.test.mapper.MappedCommandMapper;
+import com.ae.camunda.dispatcher.util.FieldAccessor;
 import com.ae.camunda.dispatcher.util.JavaUtils;
 import com.google.common.reflect.ClassPath;
 import io.github.benas.randombeans.api.EnhancedRandom;
 import org.apache.commons.lang3.tuple.Pair;
 import org.camunda.bpm.engine.rest.dto.VariableValueDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
@@ -83,6 +86,26 @@ public class ExternalTaskManagerImplTest {
             EntityMetadata<?> task = manager.getExternalTaskDefinitions().get(WrongCommand.TASK_NAME);
             Assert.assertNull(task);
         }
+
+        // сгенерированный маппер класса вне пакетов не используется
+        Assert.assertTrue(manager.getExternalTaskTopics(1).stream()
+                .noneMatch(topic -> MappedCommandMapper.TASK_NAME.equals(topic.getTopicName())));
+    }
+
+    @Test
+    public void testInitDuplicateMapper() {
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(ExternalTaskManagerImpl.class, "packages")
+                , manager
+                , Arrays.asList(MappedCommandMapper.class.getPackage().getName())
+        );
+
+        try {
+            manager.init();
+            Assert.fail("Two mappers of the same task must fail init");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains(MappedCommandMapper.TASK_NAME));
+        }
     }
 
     @Test
@@ -215,6 +238,68 @@ public class ExternalTaskManagerImplTest {
         Assert.assertEquals(command.getRetryTimeout(), pair.getValue().getRetryTimeout());
     }
 
+    @Test
+    public void testToFailTaskWithoutRetries() {
+        manager.init();
+
+        Command command = EnhancedRandom.random(Command.class);
+        command.setRetries(null);
+        Pair<String, ExternalTaskFailureDto> pair = manager.toFailTask(Command.TASK_NAME, command);
+
+        Assert.assertNotNull(pair);
+        Assert.assertEquals(0, pair.getValue().getRetries());
+        Assert.assertEquals(command.getRetryTimeout(), pair.getValue().getRetryTimeout());
+    }
+
+    @Test
+    public void testToExtendLockTask() {
+        manager.init();
+
+        Pair<String, ExtendLockOnExternalTaskDto> pair = manager.toExtendLockTask(null, new Object(), 1);
+        Assert.assertNull(pair);
+
+        pair = manager.toExtendLockTask(Command.TASK_NAME, null, 1);
+        Assert.assertNull(pair);
+
+        final long newDuration = 300000;
+        Command command = EnhancedRandom.random(Command.class);
+        pair = manager.toExtendLockTask(Command.TASK_NAME, command, newDuration);
+
+        Assert.assertNotNull(pair);
+        Assert.assertEquals(command.getId(), pair.getKey());
+
+        Assert.assertNotNull(pair.getValue());
+        Assert.assertEquals(command.getWorkerId(), pair.getValue().getWorkerId());
+        Assert.assertEquals(newDuration, pair.getValue().getNewDuration());
+    }
+
+    @Test
+    public void testFieldAccessorConversion() {
+        FieldAccessor priority = FieldAccessor.of(ReflectionUtils.findField(Command.class, "priority"));
+        Command command = new Command();
+
+        priority.set(command, 5);
+        Assert.assertEquals(5L, command.getPriority());
+
+        priority.set(command, (short) 7);
+        Assert.assertEquals(7L, command.getPriority());
+
+        try {
+            priority.set(command, 1.5D);
+            Assert.fail("Double mustn't be narrowed to long");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(7L, command.getPriority());
+        }
+
+        FieldAccessor retries = FieldAccessor.of(ReflectionUtils.findField(Command.class, "retries"));
+        try {
+            retries.set(command, 3L);
+            Assert.fail("Long mustn't be set to Integer field");
+        } catch (IllegalArgumentException e) {
+            Assert.assertNull(command.getRetries());
+        }
+    }
+
     private static void testFields(Consumer<String> consumer) {
         JavaUtils.callWithoutCheckedException(() -> {
             ClassPath.from(ExternalTaskManagerImpl.class.getClassLoader())
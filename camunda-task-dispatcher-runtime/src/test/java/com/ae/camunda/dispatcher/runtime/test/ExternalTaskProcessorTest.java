@@ -109,6 +109,8 @@ public class ExternalTaskProcessorTest {
                     .collect(Collectors.toList());
         });
 
+        Mockito.when(externalTaskRestService.fetchAndLock(Mockito.any(FetchExternalTasksDto.class), Mockito.any())).thenCallRealMethod();
+
         FetchExternalTasksDto.FetchExternalTaskTopicDto topicDto = new FetchExternalTasksDto.FetchExternalTaskTopicDto();
         topicDto.setLockDuration(10000);
         topicDto.setTopicName("simpleCommand");
@@ -17,32 +17,47 @@
 package com.ae.camunda.dispatcher.runtime.test;
 
 import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.runtime.service.EngineCallGuard;
+import com.ae.camunda.dispatcher.runtime.service.EngineEndpointSelector;
 import com.ae.camunda.dispatcher.runtime.service.ExternalTaskRestServiceImpl;
+import com.ae.camunda.dispatcher.runtime.service.JsonEntity;
 import com.ae.camunda.dispatcher.util.JavaUtils;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksExtendedDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.util.ReflectionUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringBufferInputStream;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -54,6 +69,9 @@ public class ExternalTaskRestServiceImplTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private ObjectWriter objectWriter;
+
     @Mock
     private TypeFactory typeFactory;
 
@@ -71,7 +89,6 @@ public class ExternalTaskRestServiceImplTest {
 
     @Before
     public void test() throws IOException {
-        Mockito.when(objectMapper.writeValueAsString(Mockito.any())).thenReturn("JSON");
         Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
         Mockito.when(objectMapper.readValue(Mockito.<InputStream>any(), Mockito.<JavaType>any())).thenReturn(Collections.singletonList(new LockedExternalTaskDto()));
 
@@ -91,6 +108,11 @@ public class ExternalTaskRestServiceImplTest {
                 , service
                 , objectMapper
         );
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(ExternalTaskRestServiceImpl.class, "objectWriter")
+                , service
+                , objectWriter
+        );
         JavaUtils.setFieldWithoutCheckedException(
                 ReflectionUtils.findField(ExternalTaskRestServiceImpl.class, "httpClient")
                 , service
@@ -112,25 +134,195 @@ public class ExternalTaskRestServiceImplTest {
         Assert.assertEquals(1, externalTasks.size());
         Assert.assertNotNull(externalTasks.get(0));
 
-        Mockito.verify(objectMapper, Mockito.times(1)).writeValueAsString(Mockito.any());
         Mockito.verify(objectMapper, Mockito.times(1)).getTypeFactory();
         Mockito.verify(objectMapper, Mockito.times(1)).readValue(Mockito.<InputStream>any(), Mockito.<JavaType>any());
+        verifyRequestBody(dto);
+    }
+
+    @Test
+    public void testFetchAndLockLongPolling() throws CamundaRestException, IOException {
+        FetchExternalTasksExtendedDto dto = new FetchExternalTasksExtendedDto();
+        dto.setAsyncResponseTimeout(30000L);
+        service.fetchAndLock(dto);
+
+        ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+        Mockito.verify(httpClient, Mockito.times(1)).execute(request.capture());
+
+        Assert.assertTrue(request.getValue() instanceof HttpPost);
+        Assert.assertNotNull(((HttpPost) request.getValue()).getConfig());
+        Assert.assertTrue(((HttpPost) request.getValue()).getConfig().getSocketTimeout() > 30000);
+    }
+
+    @Test
+    public void testFetchAndLockStreaming() throws CamundaRestException, IOException {
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(ExternalTaskRestServiceImpl.class, "objectMapper")
+                , service
+                , new ObjectMapper()
+        );
+        String json = "[{\"id\":\"1\",\"topicName\":\"topic\",\"variables\":{\"var\":{\"type\":\"String\",\"value\":\"value\"}}}"
+                + ",{\"id\":\"2\",\"topicName\":\"topic\"}]";
+        Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        List<LockedExternalTaskDto> tasks = new ArrayList<>();
+        int count = service.fetchAndLock(new FetchExternalTasksDto(), tasks::add);
+
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertEquals("1", tasks.get(0).getId());
+        Assert.assertEquals("value", tasks.get(0).getVariables().get("var").getValue());
+        Assert.assertEquals("2", tasks.get(1).getId());
+    }
+
+    @Test
+    public void testFetchAndLockStreamingGuard() throws CamundaRestException, IOException {
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(ExternalTaskRestServiceImpl.class, "objectMapper")
+                , service
+                , new ObjectMapper()
+        );
+        EngineCallGuard guard = new EngineCallGuard(10, 1, 10, 2.0, 0.2, 0, 1, 60000, 1);
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(ExternalTaskRestServiceImpl.class, "callGuard")
+                , service
+                , guard
+        );
+        try {
+            // слот занят, пока разбирается тело ответа
+            String json = "[{\"id\":\"1\",\"topicName\":\"topic\"},{\"id\":\"2\",\"topicName\":\"topic\"}]";
+            Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            List<Integer> inFlight = new ArrayList<>();
+            Assert.assertEquals(2, service.fetchAndLock(new FetchExternalTasksDto(), task -> inFlight.add(guard.getInFlight())));
+            Assert.assertEquals(List.of(1, 1), inFlight);
+            Assert.assertEquals(0, guard.getInFlight());
+
+            // обрыв ответа на середине - сбой вызова
+            String broken = "[{\"id\":\"1\",\"topicName\":\"topic\"},{\"id\":";
+            Mockito.when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(broken.getBytes(StandardCharsets.UTF_8)));
+            List<LockedExternalTaskDto> tasks = new ArrayList<>();
+            try {
+                service.fetchAndLock(new FetchExternalTasksDto(), tasks::add);
+                Assert.fail("Broken response must fail fetch");
+            } catch (CamundaRestException e) {
+                Assert.assertTrue(CamundaRestException.isRetryable(e));
+            }
+            Assert.assertEquals(1, tasks.size());
+            Assert.assertEquals(0, guard.getInFlight());
+            Assert.assertEquals(EngineCallGuard.State.OPEN, guard.getState());
+        } finally {
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    public void testFetchAndLockNodeFailure() throws IOException {
+        JavaUtils.setFieldWithoutCheckedException(
+                ReflectionUtils.findField(ExternalTaskRestServiceImpl.class, "endpointSelector")
+                , service
+                , new EngineEndpointSelector("http://node1,http://node2", 3, 30000, 3)
+        );
+
+        // запрос мог заблокировать задачи на узле, другой узел не пробуется
+        Mockito.when(httpClient.execute(Mockito.any())).thenThrow(new SocketTimeoutException("Read timed out"));
+        try {
+            service.fetchAndLock(new FetchExternalTasksDto());
+            Assert.fail("Read timeout must fail fetch");
+        } catch (CamundaRestException e) {
+            Assert.assertTrue(CamundaRestException.isRetryable(e));
+        }
         Mockito.verify(httpClient, Mockito.times(1)).execute(Mockito.any());
+
+        // запрос не отправлен, значит можно на другой узел
+        Mockito.reset(httpClient);
+        Mockito.when(httpClient.execute(Mockito.any())).thenThrow(new ConnectException("Connection refused")).thenReturn(response);
+        try {
+            Assert.assertEquals(1, service.fetchAndLock(new FetchExternalTasksDto()).size());
+        } catch (CamundaRestException e) {
+            Assert.fail("Fetch must go to another node, but was: " + e.getMessage());
+        }
+        Mockito.verify(httpClient, Mockito.times(2)).execute(Mockito.any());
     }
 
     @Test
     public void testComplete() throws CamundaRestException, IOException {
-        service.complete("id", new CompleteExternalTaskDto());
+        CompleteExternalTaskDto dto = new CompleteExternalTaskDto();
+        service.complete("id", dto);
 
-        Mockito.verify(objectMapper, Mockito.times(1)).writeValueAsString(Mockito.any());
-        Mockito.verify(httpClient, Mockito.times(1)).execute(Mockito.any());
+        verifyRequestBody(dto);
     }
 
     @Test
     public void testFail() throws CamundaRestException, IOException {
-        service.fail("id", new ExternalTaskFailureDto());
+        ExternalTaskFailureDto dto = new ExternalTaskFailureDto();
+        service.fail("id", dto);
 
-        Mockito.verify(objectMapper, Mockito.times(1)).writeValueAsString(Mockito.any());
-        Mockito.verify(httpClient, Mockito.times(1)).execute(Mockito.any());
+        verifyRequestBody(dto);
+    }
+
+    @Test
+    public void testExtendLock() throws CamundaRestException, IOException {
+        service.extendLock("id", new ExtendLockOnExternalTaskDto());
+
+        ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+        Mockito.verify(httpClient, Mockito.times(1)).execute(request.capture());
+
+        Assert.assertEquals("someurl/external-task/id/extendLock", request.getValue().getURI().toString());
+    }
+
+    @Test
+    public void testCompleteServerError() throws IOException {
+        Mockito.when(statusLine.getStatusCode()).thenReturn(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+        try {
+            service.complete("id", new CompleteExternalTaskDto());
+            Assert.fail("Exception is expected");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getHttpCode());
+            Assert.assertEquals("http response", e.getResponse());
+            // неизвестная ошибка движка может быть временной
+            Assert.assertTrue(CamundaRestException.isRetryable(e));
+        }
+    }
+
+    @Test
+    public void testRetryable() {
+        Assert.assertFalse(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_NOT_FOUND, "not found")));
+        Assert.assertFalse(CamundaRestException.isRetryable(new CamundaRestException(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_BAD_REQUEST, "bad request"))));
+        Assert.assertTrue(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "")));
+        Assert.assertTrue(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_SERVICE_UNAVAILABLE, "unavailable")));
+        Assert.assertTrue(CamundaRestException.isRetryable(new CamundaRestException(new IOException("connection reset"))));
+    }
+
+    @Test
+    public void testRetryableEngineError() {
+        Assert.assertTrue(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR
+                , "{\"type\":\"OptimisticLockingException\",\"message\":\"Entity was updated by another transaction concurrently\",\"code\":1}")));
+        Assert.assertTrue(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR
+                , "{\"type\":\"ProcessEngineException\",\"message\":\"Could not get JDBC Connection\",\"code\":0}")));
+        Assert.assertTrue(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR
+                , "{\"type\":\"SomeNewException\",\"message\":\"unknown\"}")));
+        Assert.assertTrue(CamundaRestException.isRetryable(new CamundaRestException(CamundaRestException.fromCodeAndResponse(
+                HttpStatus.SC_INTERNAL_SERVER_ERROR, "<html>Internal Server Error</html>"))));
+
+        Assert.assertFalse(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR
+                , "{\"type\":\"NotFoundException\",\"message\":\"External task with id 1 does not exist\"}")));
+        Assert.assertFalse(CamundaRestException.isRetryable(new CamundaRestException(CamundaRestException.fromCodeAndResponse(
+                HttpStatus.SC_INTERNAL_SERVER_ERROR, "{\"type\":\"BadUserRequestException\",\"message\":\"bad\"}"))));
+        Assert.assertFalse(CamundaRestException.isRetryable(CamundaRestException.fromCodeAndResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR
+                , "{\"type\":\"ProcessEngineException\",\"message\":\"Order is closed\",\"code\":22222}")));
+    }
+
+    private void verifyRequestBody(Object dto) throws IOException {
+        ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+        Mockito.verify(httpClient, Mockito.times(1)).execute(request.capture());
+
+        Assert.assertTrue(request.getValue() instanceof HttpPost);
+        Assert.assertTrue(((HttpPost) request.getValue()).getEntity() instanceof JsonEntity);
+        Assert.assertSame(dto, ((JsonEntity) ((HttpPost) request.getValue()).getEntity()).getValue());
+
+        // тело пишется в поток только при отправке
+        OutputStream out = Mockito.mock(OutputStream.class);
+        ((HttpPost) request.getValue()).getEntity().writeTo(out);
+        Mockito.verify(objectWriter, Mockito.times(1)).writeValue(out, dto);
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.runtime.service.JsonEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.util.EntityUtils;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+public class JsonEntityTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ObjectWriter objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @Test
+    public void testCompressionDisabled() throws IOException {
+        ExternalTaskFailureDto dto = createDto(10000);
+
+        HttpEntity entity = JsonEntity.create(objectWriter, dto, -1);
+
+        Assert.assertTrue(entity instanceof JsonEntity);
+        Assert.assertNull(entity.getContentEncoding());
+    }
+
+    @Test
+    public void testShortBodyIsNotCompressed() throws IOException {
+        ExternalTaskFailureDto dto = createDto(10);
+
+        HttpEntity entity = JsonEntity.create(objectWriter, dto, 1024);
+
+        Assert.assertNull(entity.getContentEncoding());
+        Assert.assertTrue(entity.getContentLength() > 0);
+        Assert.assertEquals(objectMapper.writeValueAsString(dto), EntityUtils.toString(entity, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLongBodyIsCompressed() throws IOException {
+        ExternalTaskFailureDto dto = createDto(10000);
+
+        HttpEntity entity = JsonEntity.create(objectWriter, dto, 1024);
+
+        Assert.assertEquals("gzip", entity.getContentEncoding().getValue());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        Assert.assertTrue(out.size() < 10000);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            Assert.assertEquals(objectMapper.writeValueAsString(dto), new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static ExternalTaskFailureDto createDto(int detailsLength) {
+        ExternalTaskFailureDto dto = new ExternalTaskFailureDto();
+        dto.setWorkerId("worker");
+        dto.setErrorMessage("error");
+        dto.setErrorDetails(StringUtils.repeat('x', detailsLength));
+        return dto;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.runtime.processor.PipelineStage;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PipelineStageTest {
+
+    @Test
+    public void testHandle() throws InterruptedException {
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        PipelineStage<Integer> stage = new PipelineStage<>("test", 2, 10, handled::add);
+        stage.start(new ThreadFactoryBuilder().setNameFormat("test-%d").build());
+
+        for (int i = 0; i < 100; ++i) {
+            stage.put(i);
+        }
+        stage.stop(5000);
+
+        Assert.assertEquals(100, handled.size());
+        Assert.assertEquals(0, stage.size());
+    }
+
+    @Test
+    public void testBackpressure() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        PipelineStage<Integer> stage = new PipelineStage<>("test", 1, 2, item -> {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stage.start(new ThreadFactoryBuilder().setNameFormat("test-%d").build());
+
+        // first item is taken by the worker, the next two fill the queue
+        stage.put(1);
+        Thread.sleep(500);
+        stage.put(2);
+        stage.put(3);
+
+        Assert.assertTrue(stage.isSaturated());
+        Assert.assertEquals(0, stage.remainingCapacity());
+
+        latch.countDown();
+        stage.stop(5000);
+
+        Assert.assertFalse(stage.isSaturated());
+    }
+
+    @Test
+    public void testReserve() throws InterruptedException {
+        PipelineStage<Integer> stage = new PipelineStage<>("test", 1, 10, item -> {
+        });
+
+        // concurrent producers share free places, not each of them sees the whole queue
+        Assert.assertEquals(6, stage.reserve(6));
+        Assert.assertEquals(4, stage.reserve(6));
+        Assert.assertEquals(0, stage.reserve(6));
+        Assert.assertTrue(stage.isSaturated());
+
+        stage.putReserved(1);
+        stage.release(5);
+        stage.release(4);
+        Assert.assertEquals(9, stage.remainingCapacity());
+
+        // place is free again when the worker takes the item
+        stage.start(new ThreadFactoryBuilder().setNameFormat("test-%d").build());
+        stage.stop(5000);
+        Assert.assertEquals(10, stage.remainingCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongConcurrency() {
+        new PipelineStage<Integer>("test", 0, 10, item -> {
+        });
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.PartialSignalException;
+import com.ae.camunda.dispatcher.runtime.service.SignalRestServiceImpl;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.camunda.bpm.engine.rest.dto.SignalDto;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SignalRestServiceImplTest {
+
+    private static final String BUSINESS_KEY = "businessKey";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private SignalRestServiceImpl service;
+
+    @Mock
+    private CloseableHttpClient httpClient;
+
+    /**
+     * Execution ids returned by lookups one after another
+     */
+    private final Queue<String> lookups = new LinkedList<>();
+
+    /**
+     * Requests sent to the engine, lookup is written as {@code lookup}, signal as its path
+     */
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+    private int signalStatus = HttpStatus.SC_NO_CONTENT;
+
+    /**
+     * Executions whose signal is rejected by the engine
+     */
+    private final Set<String> failedExecutions = new HashSet<>();
+
+    /**
+     * Executions signalled successfully
+     */
+    private final Set<String> signalledExecutions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Executions whose signal hangs until the calling thread is interrupted
+     */
+    private final Set<String> hangingExecutions = new HashSet<>();
+
+    private final CountDownLatch hangingStarted = new CountDownLatch(2);
+
+    private final CountDownLatch hangingInterrupted = new CountDownLatch(2);
+
+    @Before
+    public void init() throws IOException {
+        Mockito.when(httpClient.execute(Mockito.any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            HttpUriRequest request = invocation.getArgument(0);
+            if (request instanceof HttpGet) {
+                requests.add("lookup");
+                return createResponse(HttpStatus.SC_OK, "[{\"id\":\"" + lookups.remove() + "\",\"ended\":false}]");
+            }
+            requests.add(request.getURI().getPath());
+            String executionId = OBJECT_MAPPER.readValue(((HttpPost) request).getEntity().getContent(), SignalDto.class).getExecutionId();
+            if (hangingExecutions.contains(executionId)) {
+                hangingStarted.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    hangingInterrupted.countDown();
+                    throw new IOException("Signal is interrupted", e);
+                }
+            }
+            if (failedExecutions.contains(executionId)) {
+                return createResponse(HttpStatus.SC_BAD_REQUEST, "{\"message\":\"no subscription\"}");
+            }
+            int status = signalStatus;
+            signalStatus = HttpStatus.SC_NO_CONTENT;
+            if (status == HttpStatus.SC_NO_CONTENT) {
+                signalledExecutions.add(executionId);
+            }
+            return createResponse(status, "");
+        });
+
+        service = new SignalRestServiceImpl();
+        setField("httpClient", httpClient);
+        setField("engineUrl", "http://engine/engine-rest");
+        setField("executionCacheTtl", 60000L);
+        setField("fanOutParallelism", 1);
+        service.init();
+    }
+
+    @After
+    public void destroy() {
+        service.destroy();
+    }
+
+    @Test
+    public void testCachedLookup() throws CamundaRestException {
+        lookups.add("execution1");
+
+        service.fire(BUSINESS_KEY, createSignal());
+        service.fire(BUSINESS_KEY, createSignal());
+
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals(1, Collections.frequency(requests, "lookup"));
+    }
+
+    @Test
+    public void testStaleCache() throws CamundaRestException {
+        lookups.add("execution1");
+        lookups.add("execution2");
+
+        service.fire(BUSINESS_KEY, createSignal());
+        // execution1 уже не ждёт сигнал
+        signalStatus = HttpStatus.SC_BAD_REQUEST;
+        service.fire(BUSINESS_KEY, createSignal());
+
+        Assert.assertEquals(5, requests.size());
+        Assert.assertEquals(2, Collections.frequency(requests, "lookup"));
+        Assert.assertEquals("lookup", requests.get(3));
+    }
+
+    @Test
+    public void testParallelFire() throws CamundaRestException {
+        enableFanOut();
+
+        service.fire(createSignal(), Arrays.asList("execution1", "execution2", "execution3"));
+
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("execution1", "execution2", "execution3")), signalledExecutions);
+    }
+
+    @Test
+    public void testParallelPartialFailure() {
+        enableFanOut();
+        failedExecutions.add("execution2");
+        failedExecutions.add("execution4");
+
+        try {
+            service.fire(createSignal(), Arrays.asList("execution1", "execution2", "execution3", "execution4"));
+            Assert.fail("Signal of failed executions must fail");
+        } catch (PartialSignalException e) {
+            Assert.assertEquals(Arrays.asList("execution2", "execution4"), e.getFailedExecutionIds());
+            Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, e.getHttpCode());
+        } catch (CamundaRestException e) {
+            Assert.fail("Partial failure is expected, but was: " + e.getMessage());
+        }
+        Assert.assertEquals(4, requests.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("execution1", "execution3")), signalledExecutions);
+    }
+
+    @Test
+    public void testParallelSingleFailure() {
+        enableFanOut();
+        failedExecutions.add("execution1");
+
+        try {
+            service.fire(createSignal(), Collections.singletonList("execution1"));
+            Assert.fail("Signal of failed execution must fail");
+        } catch (PartialSignalException e) {
+            Assert.fail("Failure of the only execution is rethrown as is");
+        } catch (CamundaRestException e) {
+            Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, e.getHttpCode());
+        }
+    }
+
+    @Test
+    public void testParallelInterrupted() throws InterruptedException {
+        enableFanOut();
+        hangingExecutions.add("execution2");
+        hangingExecutions.add("execution3");
+        final Thread caller = Thread.currentThread();
+        final Thread interrupter = new Thread(() -> {
+            try {
+                hangingStarted.await();
+                caller.interrupt();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        interrupter.start();
+
+        try {
+            service.fire(createSignal(), Arrays.asList("execution1", "execution2", "execution3"));
+            Assert.fail("Interrupted signal must fail");
+        } catch (PartialSignalException e) {
+            Assert.assertEquals(Arrays.asList("execution2", "execution3"), e.getFailedExecutionIds());
+        } catch (CamundaRestException e) {
+            Assert.fail("Partial failure is expected, but was: " + e.getMessage());
+        } finally {
+            Assert.assertTrue("Interrupt flag must be restored", Thread.interrupted());
+            interrupter.join();
+        }
+        Assert.assertTrue("Outstanding signals must be cancelled", hangingInterrupted.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singleton("execution1"), signalledExecutions);
+    }
+
+    private void enableFanOut() {
+        service.destroy();
+        setField("fanOutParallelism", 4);
+        service.init();
+    }
+
+    private void setField(String name, Object value) {
+        JavaUtils.setFieldWithoutCheckedException(ReflectionUtils.findField(SignalRestServiceImpl.class, name), service, value);
+    }
+
+    private static CloseableHttpResponse createResponse(int status, String body) {
+        StatusLine statusLine = Mockito.mock(StatusLine.class, Mockito.withSettings().lenient());
+        Mockito.when(statusLine.getStatusCode()).thenReturn(status);
+        CloseableHttpResponse response = Mockito.mock(CloseableHttpResponse.class, Mockito.withSettings().lenient());
+        Mockito.when(response.getStatusLine()).thenReturn(statusLine);
+        Mockito.when(response.getEntity()).thenReturn(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    private static SignalDto createSignal() {
+        SignalDto signal = new SignalDto();
+        signal.setName("simpleSignal");
+        signal.setVariables(Collections.emptyMap());
+        return signal;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.api.annotation.CamundaTask;
+import com.ae.camunda.dispatcher.runtime.processor.TopicScheduler;
+import com.google.common.collect.ImmutableMap;
+import org.camunda.bpm.engine.rest.dto.externaltask.FetchExternalTasksDto;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TopicSchedulerTest {
+
+    @Test
+    public void testWeights() {
+        TopicScheduler scheduler = new TopicScheduler(Arrays.asList(
+                settings("fast", "latency", 3, 0, 0)
+                , settings("bulk", "", 1, 0, 0)
+        ));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 8; ++i) {
+            counts.merge(scheduler.next(topicName -> true).getGroup(), 1, Integer::sum);
+        }
+
+        Assert.assertEquals(6, (int) counts.get("latency"));
+        Assert.assertEquals(2, (int) counts.get(""));
+    }
+
+    @Test
+    public void testMaxInFlight() {
+        TopicScheduler scheduler = new TopicScheduler(Collections.singletonList(settings("topic", "", 1, 2, 10)));
+
+        TopicScheduler.FetchPlan plan = scheduler.next(topicName -> true);
+        Assert.assertEquals(2, plan.getMaxTasks());
+
+        scheduler.acquire("topic");
+        Assert.assertEquals(1, scheduler.next(topicName -> true).getMaxTasks());
+
+        scheduler.acquire("topic");
+        Assert.assertNull(scheduler.next(topicName -> true));
+
+        scheduler.release("topic");
+        Assert.assertEquals(1, scheduler.next(topicName -> true).getMaxTasks());
+    }
+
+    @Test
+    public void testMaxInFlightInGroup() {
+        TopicScheduler scheduler = new TopicScheduler(Arrays.asList(
+                settings("limited", "", 1, 1, 0)
+                , settings("free", "", 1, 0, 0)
+        ));
+
+        TopicScheduler.FetchPlan plan = scheduler.next(topicName -> true);
+        Assert.assertEquals(Arrays.asList("limited", "free"), plan.getTopicNames());
+        Assert.assertEquals(Integer.MAX_VALUE, plan.getMaxTasks());
+
+        scheduler.acquire("limited");
+        plan = scheduler.next(topicName -> true);
+        Assert.assertEquals(Collections.singletonList("free"), plan.getTopicNames());
+        Assert.assertEquals(Integer.MAX_VALUE, plan.getMaxTasks());
+    }
+
+    @Test
+    public void testNullTopic() {
+        TopicScheduler scheduler = new TopicScheduler(Collections.singletonList(settings("topic", "", 1, 1, 0)));
+
+        scheduler.acquire(null);
+        scheduler.release(null);
+        Assert.assertEquals(0, scheduler.getInFlight(null));
+        Assert.assertEquals(1, scheduler.next(topicName -> true).getMaxTasks());
+    }
+
+    @Test
+    public void testIdle() {
+        TopicScheduler scheduler = new TopicScheduler(Arrays.asList(
+                settings("first", "first", 1, 0, 0)
+                , settings("second", "second", 1, 0, 0)
+        ));
+
+        TopicScheduler.FetchPlan plan = scheduler.next(topicName -> true);
+        scheduler.idle(plan, 60000);
+
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertNotEquals(plan.getGroup(), scheduler.next(topicName -> true).getGroup());
+        }
+        Assert.assertEquals(100, scheduler.getWaitTime(100));
+    }
+
+    @Test
+    public void testWakeUp() {
+        TopicScheduler scheduler = new TopicScheduler(Arrays.asList(
+                settings("first", "group", 1, 0, 0)
+                , settings("second", "group", 1, 0, 0)
+        ));
+
+        scheduler.idle(scheduler.next(topicName -> true), 60000);
+        Assert.assertNull(scheduler.next(topicName -> true));
+
+        Assert.assertFalse(scheduler.wakeUp("unknown"));
+        Assert.assertNull(scheduler.next(topicName -> true));
+
+        Assert.assertTrue(scheduler.wakeUp("second"));
+        Assert.assertEquals(Arrays.asList("first", "second"), scheduler.next(topicName -> true).getTopicNames());
+    }
+
+    @Test
+    public void testFilter() {
+        TopicScheduler scheduler = new TopicScheduler(Arrays.asList(
+                settings("first", "", 1, 0, 0)
+                , settings("second", "", 1, 0, 0)
+        ));
+
+        TopicScheduler.FetchPlan plan = scheduler.next(topicName -> !"first".equals(topicName));
+        Assert.assertEquals(Collections.singletonList("second"), plan.getTopicNames());
+        Assert.assertEquals(Integer.MAX_VALUE, plan.getMaxTasks());
+
+        Assert.assertNull(scheduler.next(topicName -> false));
+    }
+
+    @Test
+    public void testReadSettings() {
+        TopicScheduler.TopicSettings settings = TopicScheduler.readSettings(topic(AnnotatedCommand.TASK_NAME), AnnotatedCommand.class, null);
+        Assert.assertEquals("latency", settings.getGroup());
+        Assert.assertEquals(5, settings.getWeight());
+        Assert.assertEquals(50, settings.getMaxInFlight());
+        Assert.assertEquals(0, settings.getBatchSize());
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", ImmutableMap.of(
+                "camunda.dispatcher.runtime.topic." + AnnotatedCommand.TASK_NAME + ".weight", "2"
+                , "camunda.dispatcher.runtime.topic." + AnnotatedCommand.TASK_NAME + ".batch-size", "20"
+        )));
+        settings = TopicScheduler.readSettings(topic(AnnotatedCommand.TASK_NAME), AnnotatedCommand.class, environment);
+        Assert.assertEquals("latency", settings.getGroup());
+        Assert.assertEquals(2, settings.getWeight());
+        Assert.assertEquals(20, settings.getBatchSize());
+    }
+
+    private static TopicScheduler.TopicSettings settings(String topicName, String group, int weight, int maxInFlight, int batchSize) {
+        return new TopicScheduler.TopicSettings(topic(topicName), group, weight, maxInFlight, batchSize);
+    }
+
+    private static FetchExternalTasksDto.FetchExternalTaskTopicDto topic(String topicName) {
+        FetchExternalTasksDto.FetchExternalTaskTopicDto topic = new FetchExternalTasksDto.FetchExternalTaskTopicDto();
+        topic.setTopicName(topicName);
+        return topic;
+    }
+
+    @CamundaTask(value = AnnotatedCommand.TASK_NAME, group = "latency", weight = 5, maxInFlight = 50)
+    private static class AnnotatedCommand {
+
+        private static final String TASK_NAME = "annotatedCommand";
+    }
+}
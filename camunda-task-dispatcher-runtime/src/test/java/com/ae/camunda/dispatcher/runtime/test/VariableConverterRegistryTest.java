@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.runtime.manager.VariableConverterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class VariableConverterRegistryTest {
+
+    private VariableConverterRegistry registry;
+
+    @Before
+    public void init() {
+        registry = new VariableConverterRegistry();
+    }
+
+    @Test
+    public void testNumbers() {
+        Assert.assertEquals(5, registry.convert(5L, Integer.class));
+        Assert.assertEquals(5, registry.convert(5L, int.class));
+        Assert.assertEquals(5L, registry.convert(5, Long.class));
+        Assert.assertEquals(7L, registry.convert("7", long.class));
+        Assert.assertEquals((short) 3, registry.convert(3, Short.class));
+        Assert.assertEquals(2.5D, registry.convert("2.5", Double.class));
+        Assert.assertEquals(new BigDecimal("0.1"), registry.convert(0.1D, BigDecimal.class));
+        Assert.assertEquals("5", registry.convert(5, String.class));
+    }
+
+    @Test
+    public void testJsonFallback() {
+        // пустая строка и выход за диапазон обрабатываются ObjectMapper как и раньше
+        Assert.assertNull(registry.convert("", Integer.class));
+        try {
+            registry.convert(Long.MAX_VALUE, Integer.class);
+            Assert.fail("Value out of range of Integer is converted");
+        } catch (RuntimeException e) {
+            // ok
+        }
+        Assert.assertEquals(Boolean.TRUE, registry.convert("true", Boolean.class));
+    }
+
+    @Test
+    public void testDates() {
+        long time = TimeUnit.DAYS.toMillis(365);
+        Assert.assertEquals(new Date(time), registry.convert(time, Date.class));
+        Assert.assertEquals(new Date(time), registry.convert("1971-01-01T00:00:00.000+0000", Date.class));
+    }
+
+    @Test
+    public void testEnumAndUuid() {
+        Assert.assertEquals(TimeUnit.SECONDS, registry.convert("SECONDS", TimeUnit.class));
+        UUID uuid = UUID.randomUUID();
+        Assert.assertEquals(uuid, registry.convert(uuid.toString(), UUID.class));
+    }
+
+    @Test
+    public void testRegistered() {
+        Assert.assertEquals(5, registry.convert("5", Integer.class));
+
+        registry.register(String.class, Integer.class, value -> value.length());
+        Assert.assertEquals(1, registry.convert("5", Integer.class));
+        Assert.assertEquals(1, registry.convert("5", int.class));
+    }
+}
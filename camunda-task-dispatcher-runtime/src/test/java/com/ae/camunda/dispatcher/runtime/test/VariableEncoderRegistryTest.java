@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test;
+
+import com.ae.camunda.dispatcher.runtime.manager.VariableEncoder;
+import com.ae.camunda.dispatcher.runtime.manager.VariableEncoderRegistry;
+import com.ae.camunda.dispatcher.runtime.manager.util.FieldUtils;
+import org.camunda.bpm.engine.rest.dto.VariableValueDto;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+public class VariableEncoderRegistryTest {
+
+    private VariableEncoderRegistry registry;
+
+    @Before
+    public void init() {
+        registry = new VariableEncoderRegistry();
+    }
+
+    @Test
+    public void testSameAsTypedValue() {
+        for (Object value : Arrays.asList(5, "text", true, new byte[]{1, 2}, new Date(), 5L, (short) 5, 2.5D
+                , new BigDecimal("0.1"), 1.5F, null, Collections.singletonList("item"))) {
+            assertEquals(VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(value)), registry.encode(value));
+        }
+    }
+
+    @Test
+    public void testForType() {
+        VariableEncoder<Object> intEncoder = registry.forType(int.class);
+        assertEquals(VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(5)), intEncoder.encode(5));
+
+        VariableEncoder<Object> stringEncoder = registry.forType(String.class);
+        assertEquals(VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(null)), stringEncoder.encode(null));
+
+        // тип значения поля Serializable известен только во время выполнения
+        VariableEncoder<Object> serializableEncoder = registry.forType(Serializable.class);
+        assertEquals(VariableValueDto.fromTypedValue(FieldUtils.toTypedValue(5L)), serializableEncoder.encode(5L));
+    }
+
+    @Test
+    public void testRegistered() {
+        Assert.assertEquals("Integer", registry.encode(5).getType());
+        // кодировщики полей получены до регистрации, как у уже загруженных команд
+        VariableEncoder<Object> intEncoder = registry.forType(int.class);
+        VariableEncoder<Object> integerEncoder = registry.forType(Integer.class);
+        Assert.assertEquals("Integer", intEncoder.encode(5).getType());
+
+        registry.register(Number.class, value -> {
+            VariableValueDto dto = new VariableValueDto();
+            dto.setType("String");
+            dto.setValue(value.toString());
+            return dto;
+        });
+
+        VariableValueDto dto = registry.encode(5);
+        Assert.assertEquals("String", dto.getType());
+        Assert.assertEquals("5", dto.getValue());
+        Assert.assertEquals("String", registry.forType(long.class).encode(5L).getType());
+        Assert.assertEquals("String", intEncoder.encode(5).getType());
+        Assert.assertEquals("String", integerEncoder.encode(5).getType());
+        Assert.assertEquals("Null", integerEncoder.encode(null).getType());
+    }
+
+    private static void assertEquals(VariableValueDto expected, VariableValueDto actual) {
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertEquals(expected.getValueInfo(), actual.getValueInfo());
+        if (expected.getValue() instanceof byte[]) {
+            Assert.assertArrayEquals((byte[]) expected.getValue(), (byte[]) actual.getValue());
+        } else {
+            Assert.assertEquals(expected.getValue(), actual.getValue());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.runtime.test.mapper;
+
+import com.ae.camunda.dispatcher.api.mapper.GeneratedTaskMapper;
+import com.ae.camunda.dispatcher.api.mapper.VariableConverter;
+import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.LockedExternalTaskDto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stands for mapper generated by annotation processor, registered in {@code META-INF/services} of tests
+ */
+public class MappedCommandMapper implements GeneratedTaskMapper<MappedCommandMapper.MappedCommand> {
+
+    public static final String TASK_NAME = "mappedCommand";
+
+    @Override
+    public String getTaskName() {
+        return TASK_NAME;
+    }
+
+    @Override
+    public Class<MappedCommand> getCommandClass() {
+        return MappedCommand.class;
+    }
+
+    @Override
+    public List<String> getVariableNames() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public MappedCommand toCommand(LockedExternalTaskDto task, VariableConverter converter) {
+        return new MappedCommand();
+    }
+
+    @Override
+    public String getId(MappedCommand command) {
+        return null;
+    }
+
+    @Override
+    public CompleteExternalTaskDto toCompleteTask(MappedCommand command, VariableConverter converter) {
+        return new CompleteExternalTaskDto();
+    }
+
+    @Override
+    public ExternalTaskFailureDto toFailTask(MappedCommand command) {
+        return new ExternalTaskFailureDto();
+    }
+
+    @Override
+    public ExtendLockOnExternalTaskDto toExtendLockTask(MappedCommand command, long newDuration) {
+        return new ExtendLockOnExternalTaskDto();
+    }
+
+    public static class MappedCommand {
+    }
+
+    /**
+     * Second mapper of the same task, e.g. from another jar
+     */
+    public static class Duplicate extends MappedCommandMapper {
+    }
+}
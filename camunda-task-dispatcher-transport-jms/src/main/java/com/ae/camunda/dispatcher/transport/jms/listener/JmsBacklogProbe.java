@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.transport.jms.listener;
+
+import com.ae.camunda.dispatcher.api.sender.BacklogProbe;
+import com.ae.camunda.dispatcher.util.jms.JmsTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.TemporaryQueue;
+
+/**
+ * Reads depth of the out queue from ActiveMQ statistics plugin
+ * (<a href="https://activemq.apache.org/statisticsplugin">statisticsBrokerPlugin</a> must be enabled at the broker).
+ * All topics are sent to the same queue, so they share one backlog value.
+ */
+@Component
+@ConditionalOnProperty(name = "camunda.dispatcher.jms.backlog-probe.enabled", havingValue = "true")
+public class JmsBacklogProbe implements BacklogProbe {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsBacklogProbe.class);
+
+    private static final String STATISTICS_DESTINATION_PREFIX = "ActiveMQ.Statistics.Destination.";
+
+    private static final String SIZE = "size";
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Value("${camunda.dispatcher.jms.external-task.out-queue:dispatcherOut}")
+    private String queueOut;
+
+    @Value("${camunda.dispatcher.jms.backlog-probe.timeout:1000}")
+    private long timeout;
+
+    @Value("${camunda.dispatcher.jms.backlog-probe.cache-time:500}")
+    private long cacheTime;
+
+    private volatile long backlog = UNKNOWN;
+
+    private volatile long requestedAt;
+
+    @Override
+    public long getBacklog(String topicName) {
+        long now = System.currentTimeMillis();
+        if (now - requestedAt >= cacheTime) {
+            requestedAt = now;
+            backlog = requestBacklog();
+        }
+        return backlog;
+    }
+
+    private long requestBacklog() {
+        Long size = jmsTemplate.execute(session -> {
+            Queue statisticsQueue = session.createQueue(STATISTICS_DESTINATION_PREFIX + queueOut);
+            TemporaryQueue replyQueue = session.createTemporaryQueue();
+            MessageProducer producer = session.createProducer(statisticsQueue);
+            MessageConsumer consumer = session.createConsumer(replyQueue);
+            try {
+                Message request = session.createMessage();
+                request.setJMSReplyTo(replyQueue);
+                producer.send(request);
+
+                Message reply = consumer.receive(timeout);
+                if (reply instanceof MapMessage) {
+                    return ((MapMessage) reply).getLong(SIZE);
+                }
+                LOG.warn("No statistics of queue [{}] received in {}ms, check statisticsBrokerPlugin is enabled", queueOut, timeout);
+                return null;
+            } finally {
+                consumer.close();
+                producer.close();
+                replyQueue.delete();
+            }
+        }, true);
+
+        LOG.debug("Backlog of queue [{}] is [{}]", queueOut, size);
+        return size == null ? UNKNOWN : size;
+    }
+}
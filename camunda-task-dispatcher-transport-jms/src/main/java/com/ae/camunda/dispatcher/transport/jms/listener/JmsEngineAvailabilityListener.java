@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.transport.jms.listener;
+
+import com.ae.camunda.dispatcher.api.service.EngineAvailabilityEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops consuming of task and signal commands while engine is unavailable, so they stay at broker
+ * instead of failing into retries and DLQ
+ */
+@Component
+public class JmsEngineAvailabilityListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsEngineAvailabilityListener.class);
+
+    @Autowired
+    @Qualifier("taskMessageListenerContainer")
+    private DefaultMessageListenerContainer taskMessageListenerContainer;
+
+    @Autowired
+    @Qualifier("signalMessageListenerContainer")
+    private DefaultMessageListenerContainer signalMessageListenerContainer;
+
+    @EventListener
+    public void onEngineAvailability(EngineAvailabilityEvent event) {
+        if (event.isAvailable()) {
+            LOG.info("Engine is available, JMS consumers are started");
+            taskMessageListenerContainer.start();
+            signalMessageListenerContainer.start();
+        } else {
+            LOG.warn("Engine is unavailable, JMS consumers are stopped");
+            // stop не ждёт завершения текущих сообщений, они дорабатываются как обычно
+            taskMessageListenerContainer.stop();
+            signalMessageListenerContainer.stop();
+        }
+    }
+}
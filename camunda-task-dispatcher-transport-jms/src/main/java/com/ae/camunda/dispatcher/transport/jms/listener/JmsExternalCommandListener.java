@@ -20,31 +20,62 @@ import com.ae.camunda.dispatcher.api.completer.Status;
 import com.ae.camunda.dispatcher.api.jms.Headers;
 import com.ae.camunda.dispatcher.api.manager.ExternalTaskManager;
 import com.ae.camunda.dispatcher.api.mapper.TaskMapper;
+import com.ae.camunda.dispatcher.api.service.AsyncExternalTaskRestService;
 import com.ae.camunda.dispatcher.api.service.ExternalTaskRestService;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.EngineRejectedException;
+import com.ae.camunda.dispatcher.util.ConsumerWithCheckedException;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.ae.camunda.dispatcher.util.RetryScheduler;
 import com.ae.camunda.dispatcher.util.jms.JmsTemplate;
 import org.apache.commons.lang3.tuple.Pair;
 import org.camunda.bpm.engine.rest.dto.externaltask.CompleteExternalTaskDto;
+import org.camunda.bpm.engine.rest.dto.externaltask.ExtendLockOnExternalTaskDto;
 import org.camunda.bpm.engine.rest.dto.externaltask.ExternalTaskFailureDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+import org.springframework.jms.listener.adapter.ListenerExecutionFailedException;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.jms.Session;
 import javax.jms.TextMessage;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 @Component
-public class JmsExternalCommandListener implements MessageListener {
+public class JmsExternalCommandListener implements MessageListener, SessionAwareMessageListener<Message> {
 
     private static final Logger LOG = LoggerFactory.getLogger(JmsExternalCommandListener.class);
 
+    /**
+     * Number of delivery attempts set by broker, the first delivery is 1
+     */
+    private static final String JMSX_DELIVERY_COUNT = "JMSXDeliveryCount";
+
+    private static final int HTTP_NOT_FOUND = 404;
+
     @Autowired
     private ExternalTaskRestService taskService;
 
+    @Autowired(required = false)
+    private AsyncExternalTaskRestService asyncTaskService;
+
     @Autowired
     private ExternalTaskManager taskManager;
 
@@ -66,7 +97,86 @@ public class JmsExternalCommandListener implements MessageListener {
     @Value("${camunda.dispatcher.jms.external-task.dl-queue.ttl:604800000}")
     private long dlqTtl;
 
+    /**
+     * Failed engine call rolls the message back, broker redelivers it with backoff of redelivery policy
+     * set up by {@link JmsListenerConfig}, after the last attempt message is sent to DLQ.
+     * Message stays in broker until engine accepts the call or it is in DLQ.
+     * Call rejected by dispatcher itself, e.g. while engine circuit breaker is open, isn't an attempt: consumer holds
+     * the message and repeats the call with backoff, so redelivery count doesn't grow
+     */
+    @Value("${camunda.dispatcher.jms.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    @Value("${camunda.dispatcher.jms.retry.max-attempts:5}")
+    private int retryMaxAttempts;
+
+    /**
+     * Used by asynchronous engine calls only, otherwise redelivery policy of broker connection applies
+     */
+    @Value("${camunda.dispatcher.jms.retry.initial-delay:1000}")
+    private long retryInitialDelay;
+
+    @Value("${camunda.dispatcher.jms.retry.max-delay:30000}")
+    private long retryMaxDelay;
+
+    @Value("${camunda.dispatcher.jms.retry.queue-size:1000}")
+    private int retryQueueSize;
+
+    @Value("${camunda.dispatcher.jms.retry.threads:1}")
+    private int retryThreads;
+
+    @Value("${camunda.dispatcher.jms.retry.shutdown-timeout:10000}")
+    private long retryShutdownTimeout;
+
+    /**
+     * Engine is called asynchronously, so one consumer handles many messages at once. Message is acknowledged
+     * individually when engine accepts the call or the message is in DLQ, container must use INDIVIDUAL_ACKNOWLEDGE
+     * mode and pass consumer session to {@link #acknowledgeCompleted(Session)}.
+     * Messages not acknowledged yet are redelivered after restart
+     */
+    @Value("${camunda.dispatcher.jms.async.enabled:false}")
+    private boolean async;
+
+    @Value("${camunda.dispatcher.jms.async.max-in-flight:100}")
+    private int asyncMaxInFlight;
+
+    private RetryScheduler retryScheduler;
+
+    private Semaphore asyncInFlight;
+
+    /**
+     * Messages to acknowledge by consumer thread of the session, JMS session mustn't be used by other threads
+     */
+    private final Map<Object, Queue<Message>> completedMessages = new ConcurrentHashMap<>();
+
+    private volatile boolean stopping;
+
+    @PostConstruct
+    public void init() {
+        if (retryEnabled && isAsync()) {
+            retryScheduler = new RetryScheduler("externalCommandRetry", retryThreads, retryQueueSize, retryMaxAttempts
+                    , retryInitialDelay, retryMaxDelay, CamundaRestException::isRetryable, EngineRejectedException::isRejected);
+        }
+        if (isAsync()) {
+            asyncInFlight = new Semaphore(asyncMaxInFlight);
+            LOG.info("Asynchronous engine calls are enabled with max [{}] calls in flight", asyncMaxInFlight);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        stopping = true;
+        if (retryScheduler != null) {
+            retryScheduler.shutdown(retryShutdownTimeout);
+        }
+    }
+
     public void onMessage(Message message) {
+        onMessage(message, null);
+    }
+
+    @Override
+    public void onMessage(Message message, Session session) {
         if (!(message instanceof TextMessage)) {
             LOG.warn("Only text messages allowed, skipping message: {}", message);
             return;
@@ -85,10 +195,13 @@ public class JmsExternalCommandListener implements MessageListener {
             final Status status = Status.valueOf(textMessage.getStringProperty(Headers.STATUS));
             LOG.debug("Received message in status [{}] with reason [{}] with detail [{}]", status, reason, detail);
 
+            final ConsumerWithCheckedException<ExternalTaskRestService> engineCall;
+            final Function<AsyncExternalTaskRestService, CompletableFuture<Void>> asyncEngineCall;
             switch (status) {
                 case COMPLETE:
                     Pair<String, CompleteExternalTaskDto> completeTaskPair = taskManager.toCompleteTask(taskName, command);
-                    taskService.complete(completeTaskPair.getKey(), completeTaskPair.getValue());
+                    engineCall = service -> service.complete(completeTaskPair.getKey(), completeTaskPair.getValue());
+                    asyncEngineCall = service -> service.completeAsync(completeTaskPair.getKey(), completeTaskPair.getValue());
                     break;
 
                 case FAIL:
@@ -102,20 +215,221 @@ public class JmsExternalCommandListener implements MessageListener {
                         failureDto.setErrorDetails(detail);
                     }
 
-                    taskService.fail(failTaskPair.getKey(), failureDto);
+                    engineCall = service -> service.fail(failTaskPair.getKey(), failureDto);
+                    asyncEngineCall = service -> service.failAsync(failTaskPair.getKey(), failureDto);
                     break;
+
+                case EXTEND:
+                    final long lockDuration = textMessage.getLongProperty(Headers.LOCK_DURATION);
+                    Pair<String, ExtendLockOnExternalTaskDto> extendLockPair = taskManager.toExtendLockTask(taskName, command, lockDuration);
+                    // задача могла быть уже завершена, продлевать нечего
+                    engineCall = service -> {
+                        try {
+                            service.extendLock(extendLockPair.getKey(), extendLockPair.getValue());
+                        } catch (CamundaRestException e) {
+                            if (!isNotFound(e)) {
+                                throw e;
+                            }
+                            dropExtendLock(extendLockPair.getKey());
+                        }
+                    };
+                    asyncEngineCall = service -> service.extendLockAsync(extendLockPair.getKey(), extendLockPair.getValue())
+                            .exceptionally(e -> {
+                                if (!isNotFound(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e)) {
+                                    throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                                }
+                                dropExtendLock(extendLockPair.getKey());
+                                return null;
+                            });
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("Unknown status [" + status + "]");
+            }
+
+            if (isAsync()) {
+                callEngineAsync(asyncEngineCall, engineCall, textMessage, session);
+            } else {
+                callEngine(engineCall, textMessage);
             }
+        } catch (ListenerExecutionFailedException e) {
+            // откат транзакции, сообщение будет доставлено повторно
+            throw e;
+        } catch (InterruptedException e) {
+            // сообщение не подтверждено и будет доставлено повторно
+            LOG.warn("Message processing is interrupted");
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             LOG.error("Message processing error", e);
             sendToDlq(textMessage, e);
+            if (isAsync()) {
+                acknowledge(textMessage);
+            }
+        }
+    }
+
+    /**
+     * Acknowledges messages whose engine calls are finished, called by consumer thread of the session
+     * before it receives the next message or when nothing is received
+     */
+    public void acknowledgeCompleted(Session session) {
+        Queue<Message> messages = completedMessages.get(sessionKey(session));
+        if (messages == null) {
+            return;
+        }
+        Message message;
+        while ((message = messages.poll()) != null) {
+            try {
+                acknowledge(message);
+            } catch (RuntimeException e) {
+                // не подтвержденное сообщение будет доставлено повторно
+                LOG.error("Can't acknowledge message", e);
+            }
+        }
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        return e instanceof CamundaRestException && ((CamundaRestException) e).getHttpCode() == HTTP_NOT_FOUND;
+    }
+
+    /**
+     * Lock extension of task which is already completed or failed isn't an error
+     */
+    private static void dropExtendLock(String taskId) {
+        LOG.info("Task [{}] isn't found, its lock extension is dropped", taskId);
+    }
+
+    private boolean isAsync() {
+        return async && asyncTaskService != null;
+    }
+
+    private Object sessionKey(Session session) {
+        return session == null ? this : session;
+    }
+
+    private void completed(Session session, Message message) {
+        completedMessages.computeIfAbsent(sessionKey(session), key -> new ConcurrentLinkedQueue<>()).add(message);
+    }
+
+    private void callEngineAsync(Function<AsyncExternalTaskRestService, CompletableFuture<Void>> asyncEngineCall
+            , ConsumerWithCheckedException<ExternalTaskRestService> engineCall
+            , TextMessage message, Session session) throws JMSException, InterruptedException {
+        final String text = message.getText();
+
+        // consumer thread waits here when too many calls are in flight
+        asyncInFlight.acquire();
+        final CompletableFuture<Void> future;
+        try {
+            future = asyncEngineCall.apply(asyncTaskService);
+        } catch (RuntimeException e) {
+            asyncInFlight.release();
+            throw e;
+        }
+
+        // callback runs in thread of HTTP client, so message is only handed over to consumer thread for acknowledgement
+        future.whenComplete((result, e) -> {
+            try {
+                if (e == null) {
+                    completed(session, message);
+                } else {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    onAsyncFailure(engineCall, text, cause instanceof Exception ? (Exception) cause : new CompletionException(cause)
+                            , () -> completed(session, message));
+                }
+            } catch (RuntimeException ex) {
+                LOG.error("Can't finish processing of message", ex);
+            } finally {
+                asyncInFlight.release();
+            }
+        });
+    }
+
+    /**
+     * @param onDone called when engine accepts the call or message is in DLQ, isn't called if DLQ is unavailable
+     */
+    private void onAsyncFailure(ConsumerWithCheckedException<ExternalTaskRestService> engineCall, String text, Exception e
+            , Runnable onDone) {
+        if (retryScheduler == null) {
+            LOG.error("Engine call failed, sending message to DLQ", e);
+            sendTextToDlq(() -> text, e);
+            onDone.run();
+            return;
+        }
+
+        retryScheduler.retry(service -> {
+            engineCall.accept(service);
+            onDone.run();
+        }, taskService, ex -> {
+            LOG.error("Engine call failed, sending message to DLQ", ex);
+            sendTextToDlq(() -> text, ex);
+            onDone.run();
+        }, e);
+    }
+
+    private static void acknowledge(Message message) {
+        JavaUtils.callWithoutCheckedException(() -> {
+            message.acknowledge();
+            return null;
+        });
+    }
+
+    private void callEngine(ConsumerWithCheckedException<ExternalTaskRestService> engineCall, TextMessage message) throws Exception {
+        for (int rejection = 1; ; rejection++) {
+            try {
+                engineCall.accept(taskService);
+                return;
+            } catch (Exception e) {
+                if (!retryEnabled || !EngineRejectedException.isRejected(e)) {
+                    onEngineCallFailure(e, message);
+                }
+                holdRejected(e, rejection);
+            }
+        }
+    }
+
+    /**
+     * Waits before the next call, the message stays received by this consumer. Rolls it back on shutdown
+     */
+    private void holdRejected(Exception e, int rejection) {
+        if (stopping) {
+            throw new ListenerExecutionFailedException("Engine call is rejected on shutdown, message is rolled back", e);
         }
+        long delay = Math.min(retryMaxDelay, retryInitialDelay << Math.min(rejection - 1, 30));
+        if (rejection == 1) {
+            LOG.warn("Engine call is rejected, message is held until engine accepts calls, cause: {}", e.getMessage());
+        }
+        LOG.debug("Engine call is rejected [{}] time(-s), retry in {}ms", rejection, delay);
+        try {
+            Thread.sleep(Math.max(0, delay));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ListenerExecutionFailedException("Wait for engine is interrupted, message is rolled back", e);
+        }
+    }
+
+    private void onEngineCallFailure(Exception e, TextMessage message) throws Exception {
+        int attempt = getDeliveryCount(message);
+        if (retryEnabled && attempt < retryMaxAttempts && CamundaRestException.isRetryable(e)) {
+            LOG.warn("Engine call failed, attempt [{}] of [{}], message is rolled back for redelivery, cause: {}"
+                    , attempt, retryMaxAttempts, e.getMessage());
+            throw new ListenerExecutionFailedException("Engine call failed, message is rolled back", e);
+        }
+        throw e;
+    }
+
+    private static int getDeliveryCount(Message message) throws JMSException {
+        return message.propertyExists(JMSX_DELIVERY_COUNT) ? message.getIntProperty(JMSX_DELIVERY_COUNT) : 1;
     }
 
     private void sendToDlq(TextMessage textMessage, Throwable e) {
+        sendTextToDlq(textMessage::getText, e);
+    }
+
+    private void sendTextToDlq(Callable<String> text, Throwable e) {
         jmsTemplate.send(dlq, dlqTtl, (Session session) -> {
             TextMessage dlqMessage = session.createTextMessage();
             dlqMessage.setStringProperty(errorHeader, e.getMessage());
-            dlqMessage.setText(textMessage.getText());
+            dlqMessage.setText(JavaUtils.callWithoutCheckedException(text));
             return dlqMessage;
         });
     }
@@ -16,20 +16,27 @@
 
 package com.ae.camunda.dispatcher.transport.jms.listener;
 
+import com.ae.camunda.dispatcher.util.ThreadUtils;
 import com.ae.camunda.dispatcher.util.jms.JmsTemplate;
 import com.google.common.base.Strings;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQSession;
+import org.apache.activemq.RedeliveryPolicy;
 import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTopic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.listener.DefaultMessageListenerContainer;
 
 import javax.jms.ConnectionFactory;
+import javax.jms.Session;
 
 @Configuration
 public class JmsListenerConfig {
@@ -42,6 +49,9 @@ public class JmsListenerConfig {
     @Value("${camunda.dispatcher.jms.signal.in-queue:dispatcherSignalIn}")
     private String inSignalQueueName;
 
+    @Value("${camunda.dispatcher.jms.topic-activity.topic:dispatcherTopicActivity}")
+    private String topicActivityTopicName;
+
     @Value("${camunda.dispatcher.jms.activemq.broker-url:tcp://localhost:61616}")
     private String brokerUrl;
 
@@ -63,6 +73,27 @@ public class JmsListenerConfig {
     @Value("${camunda.dispatcher.jms.receive-timeout:5000}")
     private long receiveTimeout;
 
+    /**
+     * Run listener consumers on virtual threads, requires Java 21+
+     */
+    @Value("${camunda.dispatcher.jms.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${camunda.dispatcher.jms.async.enabled:false}")
+    private boolean async;
+
+    @Value("${camunda.dispatcher.jms.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    @Value("${camunda.dispatcher.jms.retry.max-attempts:5}")
+    private int retryMaxAttempts;
+
+    @Value("${camunda.dispatcher.jms.retry.initial-delay:1000}")
+    private long retryInitialDelay;
+
+    @Value("${camunda.dispatcher.jms.retry.max-delay:30000}")
+    private long retryMaxDelay;
+
     @Bean
     public ActiveMQQueue taskQueue() {
         return new ActiveMQQueue(inTaskQueueName);
@@ -75,16 +106,42 @@ public class JmsListenerConfig {
 
     @Bean
     public ConnectionFactory connectionFactory() {
+        CachingConnectionFactory bean = new CachingConnectionFactory(createActiveMQConnectionFactory());
+        bean.setSessionCacheSize(sessionCacheSize);
+        return bean;
+    }
+
+    private ActiveMQConnectionFactory createActiveMQConnectionFactory() {
         ActiveMQConnectionFactory activeMQConnectionFactory = new ActiveMQConnectionFactory(brokerUrl);
 
         if (!Strings.isNullOrEmpty(brokerUser)) {
             activeMQConnectionFactory.setUserName(brokerUser);
             activeMQConnectionFactory.setPassword(brokerPassword);
         }
+        return activeMQConnectionFactory;
+    }
 
-        CachingConnectionFactory bean = new CachingConnectionFactory(activeMQConnectionFactory);
-        bean.setSessionCacheSize(sessionCacheSize);
-        return bean;
+    /**
+     * Redelivery policy of engine calls applies to task commands only, so the connection isn't shared
+     * with signal listener and JMS template. Listener container keeps the connection and consumers itself
+     */
+    private ConnectionFactory taskConnectionFactory(ConnectionFactory connectionFactory) {
+        if (!retryEnabled) {
+            return connectionFactory;
+        }
+
+        ActiveMQConnectionFactory activeMQConnectionFactory = createActiveMQConnectionFactory();
+        // rolled back engine calls are redelivered with exponential backoff, other messages aren't blocked meanwhile
+        RedeliveryPolicy redeliveryPolicy = activeMQConnectionFactory.getRedeliveryPolicy();
+        redeliveryPolicy.setInitialRedeliveryDelay(retryInitialDelay);
+        redeliveryPolicy.setRedeliveryDelay(retryInitialDelay);
+        redeliveryPolicy.setUseExponentialBackOff(true);
+        redeliveryPolicy.setBackOffMultiplier(2);
+        redeliveryPolicy.setMaximumRedeliveryDelay(retryMaxDelay);
+        // listener sends message to its DLQ after the last attempt, broker must not do it earlier
+        redeliveryPolicy.setMaximumRedeliveries(Math.max(retryMaxAttempts, 1));
+        activeMQConnectionFactory.setNonBlockingRedelivery(true);
+        return activeMQConnectionFactory;
     }
 
     @Bean
@@ -92,16 +149,25 @@ public class JmsListenerConfig {
     public DefaultMessageListenerContainer taskMessageListenerContainer(JmsExternalCommandListener externalTaskListener
             , ConnectionFactory connectionFactory
             , ActiveMQQueue taskQueue) {
-        DefaultMessageListenerContainer listenerContainer = new DefaultMessageListenerContainer();
+        DefaultMessageListenerContainer listenerContainer = async
+                ? new AcknowledgingListenerContainer(externalTaskListener)
+                : new DefaultMessageListenerContainer();
         listenerContainer.setMessageListener(externalTaskListener);
         listenerContainer.setDestination(taskQueue);
-        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.setConnectionFactory(taskConnectionFactory(connectionFactory));
 
         listenerContainer.setAcceptMessagesWhileStopping(false);
-        listenerContainer.setSessionTransacted(true);
+        if (async) {
+            // listener acknowledges each message itself when engine responds
+            listenerContainer.setSessionTransacted(false);
+            listenerContainer.setSessionAcknowledgeMode(ActiveMQSession.INDIVIDUAL_ACKNOWLEDGE);
+        } else {
+            listenerContainer.setSessionTransacted(true);
+        }
         listenerContainer.setConcurrentConsumers(concurrentConsumers);
         listenerContainer.setMaxMessagesPerTask(maxMessagesPerTask);
         listenerContainer.setReceiveTimeout(receiveTimeout);
+        configureTaskExecutor(listenerContainer, "taskMessageListenerContainer");
         LOG.debug("DefaultMessageListenerContainer for queue [{}] with message selector [{}] was started", listenerContainer.getDestination(), listenerContainer.getMessageSelector());
         return listenerContainer;
     }
@@ -121,13 +187,65 @@ public class JmsListenerConfig {
         listenerContainer.setConcurrentConsumers(concurrentConsumers);
         listenerContainer.setMaxMessagesPerTask(maxMessagesPerTask);
         listenerContainer.setReceiveTimeout(receiveTimeout);
+        configureTaskExecutor(listenerContainer, "signalMessageListenerContainer");
         LOG.debug("DefaultMessageListenerContainer for queue [{}] with message selector [{}] was started", listenerContainer.getDestination(), listenerContainer.getMessageSelector());
         return listenerContainer;
     }
 
+    @Bean
+    @Autowired
+    @ConditionalOnProperty(name = "camunda.dispatcher.jms.topic-activity.enabled", havingValue = "true")
+    public DefaultMessageListenerContainer topicActivityListenerContainer(JmsTopicActivityListener topicActivityListener
+            , ConnectionFactory connectionFactory) {
+        DefaultMessageListenerContainer listenerContainer = new DefaultMessageListenerContainer();
+        listenerContainer.setMessageListener(topicActivityListener);
+        listenerContainer.setDestination(new ActiveMQTopic(topicActivityTopicName));
+        listenerContainer.setPubSubDomain(true);
+        listenerContainer.setConnectionFactory(connectionFactory);
+
+        // нотификации не персистентные, потерянная будет компенсирована опросом движка
+        listenerContainer.setSessionTransacted(false);
+        listenerContainer.setConcurrentConsumers(1);
+        listenerContainer.setReceiveTimeout(receiveTimeout);
+        configureTaskExecutor(listenerContainer, "topicActivityListenerContainer");
+        LOG.debug("DefaultMessageListenerContainer for topic [{}] was started", listenerContainer.getDestination());
+        return listenerContainer;
+    }
+
     @Bean
     @Autowired
     public JmsTemplate jmsTemplate(ConnectionFactory connectionFactory) {
         return new JmsTemplate(connectionFactory);
     }
+
+    private void configureTaskExecutor(DefaultMessageListenerContainer listenerContainer, String name) {
+        if (virtualThreads) {
+            // ActiveMQ client sends and acknowledges under synchronized, so before Java 24 such calls pin carrier thread
+            // and concurrent consumers should stay below carrier pool size (jdk.virtualThreadScheduler.parallelism)
+            listenerContainer.setTaskExecutor(new SimpleAsyncTaskExecutor(ThreadUtils.createThreadFactory(name + "-", true)));
+        }
+    }
+
+    /**
+     * Gives consumer thread messages of finished asynchronous engine calls to acknowledge, before each receive
+     * and after each receive timeout
+     */
+    private static class AcknowledgingListenerContainer extends DefaultMessageListenerContainer {
+
+        private final JmsExternalCommandListener listener;
+
+        private AcknowledgingListenerContainer(JmsExternalCommandListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        protected void messageReceived(Object invoker, Session session) {
+            listener.acknowledgeCompleted(session);
+        }
+
+        @Override
+        protected void noMessageReceived(Object invoker, Session session) {
+            listener.acknowledgeCompleted(session);
+        }
+    }
 }
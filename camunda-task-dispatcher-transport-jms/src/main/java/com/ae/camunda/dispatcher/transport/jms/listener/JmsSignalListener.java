@@ -16,10 +16,12 @@
 
 package com.ae.camunda.dispatcher.transport.jms.listener;
 
+import com.ae.camunda.dispatcher.api.annotation.CamundaSignal;
 import com.ae.camunda.dispatcher.api.manager.SignalManager;
 import com.ae.camunda.dispatcher.api.mapper.SignalMapper;
 import com.ae.camunda.dispatcher.api.service.SignalRestService;
 import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.PartialSignalException;
 import com.ae.camunda.dispatcher.util.JavaUtils;
 import com.ae.camunda.dispatcher.util.jms.JmsTemplate;
 import com.google.common.collect.ImmutableSet;
@@ -72,6 +74,12 @@ public class JmsSignalListener implements MessageListener {
     @Value("${camunda.dispatcher.jms.signal.delay-period:0}")
     private long delayPeriod;
 
+    /**
+     * Comma separated ids of executions the signal has failed for, retry signals only them
+     */
+    @Value("${camunda.dispatcher.jms.signal.executions-header:dispatcherSignalExecutions}")
+    private String executionsHeader = "dispatcherSignalExecutions";
+
     @Value("${camunda.dispatcher.jms.signal.error-header}")
     private String errorHeader;
 
@@ -99,8 +107,16 @@ public class JmsSignalListener implements MessageListener {
 
             final Pair<String, SignalDto> signalPair = signalManager.toSignal(signalName, signal);
 
+            final String executions = textMessage.getStringProperty(executionsHeader);
             try {
-                signalRestService.fire(signalPair.getLeft(), signalPair.getRight());
+                if (StringUtils.hasText(executions)) {
+                    // повтор доставляется только тем execution, на которых сигнал упал в прошлый раз
+                    signalRestService.fire(signalPair.getRight(), Arrays.asList(executions.split(",")));
+                } else if (signalManager.getSignalDelivery(signalName) == CamundaSignal.Delivery.MESSAGE) {
+                    signalRestService.correlate(signalPair.getLeft(), signalPair.getRight());
+                } else {
+                    signalRestService.fire(signalPair.getLeft(), signalPair.getRight());
+                }
             } catch (CamundaRestException e) {
                 LOG.warn("Can't fire signal, cause: {}", e.getMessage());
 
@@ -120,7 +136,8 @@ public class JmsSignalListener implements MessageListener {
                         jmsTemplate.send(signalQueue.getQueueName(), (Session session) -> {
                             TextMessage retryMessage = session.createTextMessage(textMessage.getText());
 
-                            copyHeaders(textMessage, retryMessage, ImmutableSet.of(ScheduledMessage.AMQ_SCHEDULED_DELAY, ScheduledMessage.AMQ_SCHEDULED_ID, retryHeader));
+                            copyHeaders(textMessage, retryMessage, ImmutableSet.of(ScheduledMessage.AMQ_SCHEDULED_DELAY, ScheduledMessage.AMQ_SCHEDULED_ID, retryHeader, executionsHeader));
+                            setFailedExecutions(retryMessage, e, executions);
 
                             if (delayPeriod > 0) {
                                 retryMessage.setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, delayPeriod);
@@ -142,11 +159,25 @@ public class JmsSignalListener implements MessageListener {
         jmsTemplate.send(dlq, dlqTtl, (Session session) -> {
             TextMessage dlqMessage = session.createTextMessage(textMessage.getText());
             copyHeaders(textMessage, dlqMessage);
+            if (e instanceof PartialSignalException) {
+                setFailedExecutions(dlqMessage, e, null);
+            }
             dlqMessage.setStringProperty(errorHeader, e.getMessage());
             return dlqMessage;
         });
     }
 
+    /**
+     * @param executions executions signalled by failed attempt, {@code null} if they were looked up
+     */
+    private void setFailedExecutions(Message message, Throwable e, String executions) throws JMSException {
+        if (e instanceof PartialSignalException) {
+            message.setStringProperty(executionsHeader, String.join(",", ((PartialSignalException) e).getFailedExecutionIds()));
+        } else if (StringUtils.hasText(executions)) {
+            message.setStringProperty(executionsHeader, executions);
+        }
+    }
+
     private static void copyHeaders(Message from, Message to) throws JMSException {
         copyHeaders(from, to, Collections.emptySet());
     }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.transport.jms.listener;
+
+import com.ae.camunda.dispatcher.api.processor.TopicActivityListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Passes topic names published by engine plugin to {@link TopicActivityListener}-s
+ */
+@Component
+@ConditionalOnProperty(name = "camunda.dispatcher.jms.topic-activity.enabled", havingValue = "true")
+public class JmsTopicActivityListener implements MessageListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsTopicActivityListener.class);
+
+    @Autowired(required = false)
+    private List<TopicActivityListener> listeners = Collections.emptyList();
+
+    @Override
+    public void onMessage(Message message) {
+        if (!(message instanceof TextMessage)) {
+            LOG.warn("Topic activity message [{}] is ignored, text message is expected", message);
+            return;
+        }
+
+        try {
+            String topicName = ((TextMessage) message).getText();
+            for (TopicActivityListener listener : listeners) {
+                listener.onTopicActivity(topicName);
+            }
+        } catch (JMSException | RuntimeException e) {
+            LOG.warn("Can't handle topic activity message", e);
+        }
+    }
+}
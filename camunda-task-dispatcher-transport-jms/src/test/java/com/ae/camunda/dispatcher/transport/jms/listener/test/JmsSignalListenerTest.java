@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.transport.jms.listener.test;
+
+import com.ae.camunda.dispatcher.api.manager.SignalManager;
+import com.ae.camunda.dispatcher.api.mapper.SignalMapper;
+import com.ae.camunda.dispatcher.api.service.SignalRestService;
+import com.ae.camunda.dispatcher.exception.CamundaRestException;
+import com.ae.camunda.dispatcher.exception.PartialSignalException;
+import com.ae.camunda.dispatcher.transport.jms.listener.JmsSignalListener;
+import com.ae.camunda.dispatcher.util.JavaUtils;
+import com.ae.camunda.dispatcher.util.jms.JmsTemplate;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.commons.lang3.tuple.Pair;
+import org.camunda.bpm.engine.rest.dto.SignalDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jms.core.MessageCreator;
+import org.springframework.util.ReflectionUtils;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JmsSignalListenerTest {
+
+    private static final String TYPE_HEADER = "type";
+
+    private static final String RETRY_HEADER = "retry";
+
+    private static final String EXECUTIONS_HEADER = "dispatcherSignalExecutions";
+
+    private static final String SIGNAL = "simpleSignal";
+
+    private static final String BUSINESS_KEY = "businessKey";
+
+    @Mock
+    private SignalRestService signalRestService;
+
+    @Mock
+    private SignalManager signalManager;
+
+    @Mock
+    private SignalMapper signalMapper;
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    @Mock
+    private TextMessage textMessage;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private TextMessage retryMessage;
+
+    private final SignalDto signalDto = new SignalDto();
+
+    private JmsSignalListener listener;
+
+    @Before
+    public void init() throws JMSException {
+        listener = new JmsSignalListener();
+        setField("signalRestService", signalRestService);
+        setField("signalManager", signalManager);
+        setField("signalMapper", signalMapper);
+        setField("jmsTemplate", jmsTemplate);
+        setField("signalQueue", new ActiveMQQueue("signalQueue"));
+        setField("typeHeader", TYPE_HEADER);
+        setField("retryHeader", RETRY_HEADER);
+        setField("retryNumber", 3);
+        setField("dlq", "dlq");
+
+        Mockito.when(textMessage.getText()).thenReturn("{}");
+        Mockito.when(textMessage.getStringProperty(TYPE_HEADER)).thenReturn(SIGNAL);
+        Mockito.when(signalManager.toSignal(Mockito.eq(SIGNAL), Mockito.any())).thenReturn(Pair.of(BUSINESS_KEY, signalDto));
+        Mockito.lenient().when(textMessage.getPropertyNames()).thenAnswer(invocation -> Collections.emptyEnumeration());
+    }
+
+    @Test
+    public void testFireByBusinessKey() throws CamundaRestException {
+        listener.onMessage(textMessage);
+
+        Mockito.verify(signalRestService, Mockito.times(1)).fire(BUSINESS_KEY, signalDto);
+        Mockito.verify(signalRestService, Mockito.never()).fire(Mockito.any(SignalDto.class), Mockito.anyCollection());
+    }
+
+    @Test
+    public void testFireByExecutionsHeader() throws JMSException, CamundaRestException {
+        Mockito.when(textMessage.getStringProperty(EXECUTIONS_HEADER)).thenReturn("execution1,execution2");
+
+        listener.onMessage(textMessage);
+
+        Mockito.verify(signalRestService, Mockito.times(1)).fire(signalDto, Arrays.asList("execution1", "execution2"));
+        Mockito.verify(signalRestService, Mockito.never()).fire(Mockito.anyString(), Mockito.any());
+        Mockito.verify(signalRestService, Mockito.never()).correlate(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    public void testRetryFailedExecutions() throws JMSException, CamundaRestException {
+        Mockito.doThrow(new PartialSignalException("partial", Collections.singletonList("execution2")
+                , CamundaRestException.fromCodeAndResponse(400, "no subscription")))
+                .when(signalRestService).fire(BUSINESS_KEY, signalDto);
+
+        listener.onMessage(textMessage);
+
+        Mockito.verify(retryMessage(), Mockito.times(1)).setStringProperty(EXECUTIONS_HEADER, "execution2");
+        Mockito.verify(retryMessage, Mockito.times(1)).setIntProperty(RETRY_HEADER, 1);
+    }
+
+    @Test
+    public void testRetryExecutionsHeader() throws JMSException, CamundaRestException {
+        Mockito.when(textMessage.getStringProperty(EXECUTIONS_HEADER)).thenReturn("execution1,execution2");
+        Mockito.doThrow(CamundaRestException.fromCodeAndResponse(503, "unavailable"))
+                .when(signalRestService).fire(Mockito.eq(signalDto), Mockito.anyCollection());
+
+        listener.onMessage(textMessage);
+
+        // неудачный повтор повторяется на тех же execution, без поиска по business key
+        Mockito.verify(retryMessage(), Mockito.times(1)).setStringProperty(EXECUTIONS_HEADER, "execution1,execution2");
+        Mockito.verify(signalRestService, Mockito.never()).fire(Mockito.anyString(), Mockito.any());
+    }
+
+    /**
+     * @return message created by the only retry send
+     */
+    private TextMessage retryMessage() throws JMSException {
+        Mockito.when(session.createTextMessage("{}")).thenReturn(retryMessage);
+
+        ArgumentCaptor<MessageCreator> creator = ArgumentCaptor.forClass(MessageCreator.class);
+        Mockito.verify(jmsTemplate, Mockito.times(1)).send(Mockito.eq("signalQueue"), creator.capture());
+        creator.getValue().createMessage(session);
+        return retryMessage;
+    }
+
+    private void setField(String name, Object value) {
+        JavaUtils.setFieldWithoutCheckedException(ReflectionUtils.findField(JmsSignalListener.class, name), listener, value);
+    }
+}
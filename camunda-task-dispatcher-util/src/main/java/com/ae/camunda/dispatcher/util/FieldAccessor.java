@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Getter and setter of a field compiled once into {@link MethodHandle}-s, so access checks are done
+ * at creation instead of every call as with {@link JavaUtils#getFieldWithoutCheckedException(Field, Object)}.
+ * <p>
+ * Values are passed boxed since command variables are objects anyway, {@code null} set to primitive field
+ * turns into zero value of its type
+ */
+public final class FieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+
+    private final MethodHandle getter;
+
+    private final MethodHandle setter;
+
+    private final Object nullValue;
+
+    private FieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+        this.nullValue = zeroValue(field.getType());
+    }
+
+    public static FieldAccessor of(Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalArgumentException("Field " + field + " is static");
+        }
+
+        final MethodHandles.Lookup lookup = lookupFor(field);
+
+        MethodHandle getter = JavaUtils.callWithoutCheckedException(() -> lookup.unreflectGetter(field)).asType(GETTER_TYPE);
+        MethodHandle setter;
+        if (Modifier.isFinal(field.getModifiers())) {
+            // final поле пишется как и через Field.set, только при снятой проверке доступа
+            field.setAccessible(true);
+            setter = JavaUtils.callWithoutCheckedException(() -> MethodHandles.lookup().unreflectSetter(field));
+        } else {
+            setter = JavaUtils.callWithoutCheckedException(() -> lookup.unreflectSetter(field));
+        }
+        return new FieldAccessor(field, getter, setter.asType(SETTER_TYPE));
+    }
+
+    private static MethodHandles.Lookup lookupFor(Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            // модуль не открыт для нас, остаётся обычный reflection доступ
+            field.setAccessible(true);
+            return MethodHandles.lookup();
+        }
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getName() {
+        return field.getName();
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    public Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value == null ? nullValue : value instanceof Number ? convert((Number) value) : value);
+        } catch (ClassCastException e) {
+            // handle приводит значение к типу поля, Field.set в этом случае бросает IllegalArgumentException
+            IllegalArgumentException mismatch = typeMismatch(value);
+            mismatch.initCause(e);
+            throw mismatch;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * @return value of uninitialized field of given type, {@code null} for reference types
+     */
+    public static Object zeroValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        } else {
+            return 0D;
+        }
+    }
+
+    /**
+     * Reflection widens {@code Integer} set to {@code long} field, handle has to be given exact wrapper type.
+     * Narrowing, e.g. {@code Long} to {@code int} field, is rejected as {@link Field#set(Object, Object)} does
+     */
+    private Object convert(Number value) {
+        Class<?> type = field.getType();
+        if (!type.isPrimitive()) {
+            return value;
+        }
+        int targetRank = rank(type);
+        int valueRank = rank(value.getClass());
+        if (valueRank == 0 || targetRank == 0 || valueRank > targetRank) {
+            throw typeMismatch(value);
+        }
+        if (valueRank == targetRank) {
+            return value;
+        } else if (type == long.class) {
+            return value.longValue();
+        } else if (type == int.class) {
+            return value.intValue();
+        } else if (type == double.class) {
+            return value.doubleValue();
+        } else if (type == float.class) {
+            return value.floatValue();
+        } else {
+            return value.shortValue();
+        }
+    }
+
+    /**
+     * @return order of widening primitive conversion, 0 for other types
+     */
+    private static int rank(Class<?> type) {
+        if (type == byte.class || type == Byte.class) {
+            return 1;
+        } else if (type == short.class || type == Short.class) {
+            return 2;
+        } else if (type == int.class || type == Integer.class) {
+            return 3;
+        } else if (type == long.class || type == Long.class) {
+            return 4;
+        } else if (type == float.class || type == Float.class) {
+            return 5;
+        } else if (type == double.class || type == Double.class) {
+            return 6;
+        }
+        return 0;
+    }
+
+    private IllegalArgumentException typeMismatch(Object value) {
+        return new IllegalArgumentException("Can not set " + field.getType().getName() + " field "
+                + field.getDeclaringClass().getName() + "." + field.getName() + " to " + value.getClass().getName());
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new RuntimeException(e);
+    }
+
+    @Override
+    public String toString() {
+        return "FieldAccessor{" + field + '}';
+    }
+}
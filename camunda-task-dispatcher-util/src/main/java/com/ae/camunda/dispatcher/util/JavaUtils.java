@@ -20,6 +20,8 @@ import com.google.common.reflect.ClassPath;
 import org.apache.commons.lang3.StringUtils;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.variable.serializer.JavaObjectSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -33,6 +35,8 @@ import java.util.stream.Collectors;
 
 public abstract class JavaUtils {
 
+    private static final Logger LOG = LoggerFactory.getLogger(JavaUtils.class);
+
     public static <T> T callWithoutCheckedException(Callable<T> callable) throws RuntimeException {
         try {
             return callable.call();
@@ -99,7 +103,7 @@ public abstract class JavaUtils {
     }
 
     public static void forEachClass(List<String> packages, Consumer<Class<?>> classConsumer) {
-        packages.forEach(packageName ->
+        packages.stream().filter(StringUtils::isNotBlank).forEach(packageName ->
                 callWithoutCheckedException(() -> {
                     ClassPath.from(JavaUtils.class.getClassLoader())
                             .getTopLevelClassesRecursive(packageName)
@@ -112,6 +116,34 @@ public abstract class JavaUtils {
         );
     }
 
+    /**
+     * @return {@code true} if the class is in one of the packages or their subpackages, same as {@link #forEachClass}
+     */
+    public static boolean isInPackages(Class<?> aClass, List<String> packages) {
+        String className = aClass.getName();
+        return packages.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .anyMatch(packageName -> className.startsWith(packageName + "."));
+    }
+
+    /**
+     * Broken entries of {@code META-INF/services}, e.g. left by incremental build, are skipped
+     */
+    public static <S> void forEachService(Class<S> service, Consumer<S> serviceConsumer) {
+        Iterator<S> iterator = ServiceLoader.load(service, JavaUtils.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    return;
+                }
+                serviceConsumer.accept(iterator.next());
+            } catch (ServiceConfigurationError e) {
+                LOG.warn("Service {} is skipped: {}", service.getName(), e.getMessage());
+            }
+        }
+    }
+
     public static Map<String, Class<? extends Annotation>> loadAnnotations(String packageName) {
         Map<String, Class<? extends Annotation>> map = new HashMap<>();
         callWithoutCheckedException(() -> {
@@ -150,12 +182,7 @@ public abstract class JavaUtils {
     private static void setFieldUnsafe(Field field, Object target, Object value) throws IllegalAccessException {
         try {
             field.setAccessible(true);
-            if (value == null
-                    && field.getType().isPrimitive()) {
-                field.set(target, 0);
-            } else {
-                field.set(target, value);
-            }
+            field.set(target, value == null ? FieldAccessor.zeroValue(field.getType()) : value);
         } finally {
             field.setAccessible(false);
         }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Non-blocking replacement of {@link JavaUtils#tryConsume}. Failed action is retried on scheduler threads
+ * with exponential backoff and jitter, so the calling thread never sleeps.
+ * <p>
+ * Count of pending retries is bounded, action is given up when the bound is reached,
+ * attempts are exhausted or exception is not retryable. Attempt failed with exception which is not counted,
+ * e.g. the call was rejected before it reached the target, is retried with backoff but doesn't spend attempts.
+ */
+public class RetryScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryScheduler.class);
+
+    private final String name;
+
+    private final int maxPending;
+
+    private final int maxAttempts;
+
+    private final long initialDelay;
+
+    private final long maxDelay;
+
+    private final Predicate<Exception> retryable;
+
+    private final Predicate<Exception> notCounted;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * @param maxPending  max count of actions waiting for retry
+     * @param maxAttempts max count of attempts including the first one
+     * @param retryable   exceptions which are worth to retry
+     */
+    public RetryScheduler(String name, int threads, int maxPending, int maxAttempts
+            , long initialDelay, long maxDelay, Predicate<Exception> retryable) {
+        this(name, threads, maxPending, maxAttempts, initialDelay, maxDelay, retryable, e -> false);
+    }
+
+    /**
+     * @param notCounted exceptions of attempts which aren't counted in {@code maxAttempts}
+     */
+    public RetryScheduler(String name, int threads, int maxPending, int maxAttempts
+            , long initialDelay, long maxDelay, Predicate<Exception> retryable, Predicate<Exception> notCounted) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts of [" + name + "] must be positive, but was [" + maxAttempts + "]");
+        }
+        this.name = name;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.retryable = retryable;
+        this.notCounted = notCounted;
+
+        this.executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Makes the first attempt in the calling thread, retries are scheduled
+     *
+     * @param onGiveUp called with the last exception when action won't be retried anymore
+     * @return {@code true} if the first attempt succeeded
+     */
+    public <T> boolean execute(ConsumerWithCheckedException<T> consumer, T value, Consumer<Exception> onGiveUp) {
+        try {
+            consumer.accept(value);
+            return true;
+        } catch (Exception e) {
+            retry(consumer, value, onGiveUp, e);
+            return false;
+        }
+    }
+
+    /**
+     * Makes all attempts in the calling thread, it sleeps between them. For callers which must know the result
+     *
+     * @throws Exception the last exception when action won't be retried anymore
+     */
+    public <T> void executeBlocking(ConsumerWithCheckedException<T> consumer, T value) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                consumer.accept(value);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !retryable.test(e)) {
+                    throw e;
+                }
+                long delay = getDelay(attempt);
+                LOG.debug("Attempt [{}] of [{}] failed, retry in {}ms, cause: {}", attempt, name, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(ie);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedules retries of action which first attempt has already failed elsewhere, e.g. asynchronously
+     *
+     * @param failure exception of the first attempt
+     */
+    public <T> void retry(ConsumerWithCheckedException<T> consumer, T value, Consumer<Exception> onGiveUp, Exception failure) {
+        retry(consumer, value, onGiveUp, failure, 1, 0);
+    }
+
+    /**
+     * Makes all attempts on scheduler threads
+     */
+    public <T> void schedule(ConsumerWithCheckedException<T> consumer, T value, Consumer<Exception> onGiveUp) {
+        if (!reserve()) {
+            giveUp(onGiveUp, new RejectedExecutionException("Retry queue of [" + name + "] is full"));
+            return;
+        }
+        submit(consumer, value, onGiveUp, 0, 0, 0);
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Waits for scheduled retries, not finished ones are given up without callback
+     */
+    public void shutdown(long timeout) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+            LOG.warn("[{}] retries of [{}] are dropped on shutdown", pending.get(), name);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return delay before attempt following {@code attempt}, grows twice each time, half of it is random
+     */
+    public long getDelay(int attempt) {
+        long delay = initialDelay << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    /**
+     * @param attempt    count of failed attempts including the last one
+     * @param notCounted count of attempts failed before with not counted exception
+     */
+    private <T> void retry(ConsumerWithCheckedException<T> consumer, T value, Consumer<Exception> onGiveUp, Exception e
+            , int attempt, int notCounted) {
+        if (this.notCounted.test(e)) {
+            attempt--;
+            notCounted++;
+        } else if (attempt >= maxAttempts || !retryable.test(e)) {
+            giveUp(onGiveUp, e);
+            return;
+        }
+        if (!reserve()) {
+            LOG.warn("Retry queue of [{}] is full", name);
+            giveUp(onGiveUp, e);
+            return;
+        }
+        long delay = getDelay(attempt + notCounted);
+        LOG.debug("Attempt [{}] of [{}] failed, retry in {}ms, cause: {}", attempt + notCounted, name, delay, e.getMessage());
+        submit(consumer, value, onGiveUp, attempt, notCounted, delay);
+    }
+
+    private <T> void submit(ConsumerWithCheckedException<T> consumer, T value, Consumer<Exception> onGiveUp
+            , int attempt, int notCounted, long delay) {
+        try {
+            executor.schedule(() -> {
+                pending.decrementAndGet();
+                try {
+                    consumer.accept(value);
+                } catch (Exception e) {
+                    retry(consumer, value, onGiveUp, e, attempt + 1, notCounted);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            giveUp(onGiveUp, e);
+        }
+    }
+
+    private boolean reserve() {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void giveUp(Consumer<Exception> onGiveUp, Exception e) {
+        try {
+            onGiveUp.accept(e);
+        } catch (RuntimeException callbackException) {
+            LOG.error("Give up callback of [{}] failed", name, callbackException);
+        }
+    }
+}
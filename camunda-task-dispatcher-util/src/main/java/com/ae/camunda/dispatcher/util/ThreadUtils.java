@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 Antony Esik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ae.camunda.dispatcher.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for platform or virtual threads. Project is built for Java 17,
+ * so virtual threads (Java 21+) are created through reflection.
+ * <p>
+ * Virtual thread is pinned to its carrier while it blocks inside {@code synchronized},
+ * so blocking I/O must be guarded by {@link java.util.concurrent.locks.Lock} instead.
+ */
+public abstract class ThreadUtils {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadUtils.class);
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method BUILDER_NAME;
+
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix thread names are {@code namePrefix} followed by counter
+     * @param virtual    create virtual threads, platform threads are used if JVM doesn't support them
+     */
+    public static ThreadFactory createThreadFactory(String namePrefix, boolean virtual) {
+        if (virtual) {
+            if (isVirtualThreadsSupported()) {
+                return JavaUtils.callWithoutCheckedException(() -> {
+                    Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+                    return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+                });
+            }
+            LOG.warn("Virtual threads are not supported by Java {}, platform threads [{}] are used", System.getProperty("java.version"), namePrefix);
+        }
+        return new ThreadFactoryBuilder().setNameFormat(namePrefix + "%d").build();
+    }
+}